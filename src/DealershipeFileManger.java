@@ -2,93 +2,725 @@
 package com.dealership.data;
 
 import Home.Dealership;
+import com.dealership.metrics.InventoryMetrics;
+import com.dealership.model.ConcurrentDealership;
 import com.dealership.model.Dealership;
+import com.dealership.model.InventoryChange;
 import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Manages reading from and writing to the dealership file
+ * Manages reading from and writing to the dealership file.
+ * <p>
+ * Saves append the edits made since the last save to a journal next to the file
+ * ({@code inventory.csv.journal}) instead of rewriting the whole inventory. Loading replays
+ * the journal over the file, and once the journal passes the compaction threshold a
+ * background thread folds it into a fresh copy of the file.
+ * <p>
+ * All writes happen on one background writer thread. {@link #saveDealership(Dealership)}
+ * waits for its save to be written; {@link #saveDealershipAsync(Dealership)} returns at once,
+ * and saves that queue up while the writer is busy go out together in a single write.
+ * A new file is written to a temp file, optionally fsynced, and renamed over the old one,
+ * so a crash mid-save never leaves a partial file behind.
  */
 public class DealershipFileManager {
     private static final String DELIMITER = "\\|";
     private static final String FILE_PATH = "src/main/resources/inventory.csv";
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1L << 20;
+    // Characters formatted before they are handed to the writer
+    private static final int WRITE_CHUNK = 8 << 10;
+
+    private final String filePath;
+    private boolean internStrings = true;
+    private boolean parallelLoading;
+    private boolean compressedStorage;
+    private boolean concurrentAccess;
+    private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private volatile boolean syncWrites = true;
+
+    // Files next to the inventory file: the journal, the journal being compacted, and the
+    // new snapshot while it is written (.tmp) and once it is complete. A complete snapshot
+    // named .next still needs the journal; one named .full already contains it.
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path compactingJournalPath;
+    private final Path tempSnapshotPath;
+    private final Path nextSnapshotPath;
+    private final Path fullSnapshotPath;
+
+    // Lock order is snapshotLock, then journalLock
+    private final Object snapshotLock = new Object();
+    private final Object journalLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private ExecutorService compactor;
+
+    // Saves waiting for the writer; this list's monitor also guards the fields below it
+    private final List<PendingSave> pendingSaves = new ArrayList<>();
+    private boolean flushScheduled;
+    private ExecutorService writer;
+    // Dealership whose changes since its last save belong in this file's journal
+    private Dealership journaledDealership;
+    // Every save that rewrites the file starts a generation; changes are only journaled
+    // on top of the generation the file on disk holds, or -1 after a failed write
+    private int snapshotGeneration;
+    private int writtenGeneration = -1;
+    // Identity of the inventory file as this manager last loaded or wrote it, so a change
+    // made by another program can be told apart from this manager's own saves
+    private volatile Object knownSnapshot;
+
+    /**
+     * Constructor for the DealershipFileManager class, using the default inventory file
+     */
+    public DealershipFileManager() {
+        this(FILE_PATH);
+    }
+
+    /**
+     * Constructor for the DealershipFileManager class
+     *
+     * @param filePath Path of the inventory file to read and write
+     */
+    public DealershipFileManager(String filePath) {
+        this.filePath = filePath;
+        this.snapshotPath = Paths.get(filePath);
+        this.journalPath = Paths.get(filePath + ".journal");
+        this.compactingJournalPath = Paths.get(filePath + ".journal.compacting");
+        this.tempSnapshotPath = Paths.get(filePath + ".tmp");
+        this.nextSnapshotPath = Paths.get(filePath + ".next");
+        this.fullSnapshotPath = Paths.get(filePath + ".full");
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Controls whether loading shares one String instance per distinct make, model, type
+     * and color. Enabled by default; a lot has a few hundred distinct values but one row per vehicle.
+     *
+     * @param internStrings true to intern text fields while loading
+     */
+    public void setInternStrings(boolean internStrings) {
+        this.internStrings = internStrings;
+    }
 
     /**
-     * Reads the dealership file and creates a Dealership object
+     * Switches loading to memory-mapping the file and parsing line-aligned chunks in
+     * parallel on the common fork-join pool. Worth it for files of tens of megabytes and up.
+     *
+     * @param parallelLoading true to load large files in parallel
+     */
+    public void setParallelLoading(boolean parallelLoading) {
+        this.parallelLoading = parallelLoading;
+    }
+
+    /**
+     * Switches saves that rewrite the file to {@link CompressedInventoryFile}'s format of
+     * independently compressed blocks, which are inflated in parallel on load. Loading
+     * recognizes either format, so turning this off makes the next rewrite plain text again.
+     * The journal stays plain text either way.
+     *
+     * @param compressedStorage true to write the inventory file compressed
+     */
+    public void setCompressedStorage(boolean compressedStorage) {
+        this.compressedStorage = compressedStorage;
+    }
+
+    /**
+     * Makes {@link #getDealership()} return a {@link ConcurrentDealership}, for inventories
+     * that several threads read and edit at once
+     *
+     * @param concurrentAccess true to load into a thread-safe Dealership
+     */
+    public void setConcurrentAccess(boolean concurrentAccess) {
+        this.concurrentAccess = concurrentAccess;
+    }
+
+    /**
+     * Sets the journal size at which a save starts a background compaction
+     *
+     * @param compactionThreshold Journal length in bytes
+     */
+    public void setCompactionThreshold(long compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Controls whether writes are forced to disk before a save completes. Enabled by
+     * default; turning it off trades durability on power loss for throughput, which suits
+     * batch imports that can be rerun. Files are still replaced atomically either way.
+     *
+     * @param syncWrites true to fsync every journal append and new file
+     */
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Reads the dealership file, replays its journal and creates a Dealership object.
+     * The returned Dealership tracks its changes so the next save only appends them.
      *
      * @return A Dealership object populated with data from the file
      */
     public Dealership getDealership() {
-        Dealership dealership = null;
+        flush();
+        synchronized (snapshotLock) {
+            synchronized (journalLock) {
+                return load();
+            }
+        }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH))) {
-            // First line contains dealership info
-            String dealershipLine = reader.readLine();
-            if (dealershipLine != null) {
-                String[] dealershipData = dealershipLine.split(DELIMITER);
-                if (dealershipData.length >= 3) {
-                    String name = dealershipData[0].trim();
-                    String address = dealershipData[1].trim();
-                    String phone = dealershipData[2].trim();
-                    dealership = new Dealership(name, address, phone);
-
-                    // Read vehicle data
-                    String vehicleLine;
-                    while ((vehicleLine = reader.readLine()) != null) {
-                        try {
-                            String[] vehicleData = vehicleLine.split(DELIMITER);
-                            if (vehicleData.length >= 8) {
-                                int vin = Integer.parseInt(vehicleData[0].trim());
-                                int year = Integer.parseInt(vehicleData[1].trim());
-                                String make = vehicleData[2].trim();
-                                String model = vehicleData[3].trim();
-                                String type = vehicleData[4].trim();
-                                String color = vehicleData[5].trim();
-                                int odometer = Integer.parseInt(vehicleData[6].trim());
-                                double price = Double.parseDouble(vehicleData[7].trim());
-
-                                Vehicle vehicle = new Vehicle(vin, year, make, model, type, color, odometer, price);
-                                dealership.addVehicle(vehicle);
-                            }
-                        } catch (NumberFormatException e) {
-                            System.err.println("Error parsing vehicle data: " + e.getMessage());
-                        }
-                    }
+    /**
+     * Loads the inventory file after another program replaced it. The journal holds edits
+     * made against the file as it was, so replaying it over the new file could add a VIN the
+     * file already has or put back a value the other program changed. It is moved aside to
+     * {@code .journal.superseded-<time>}, together with a journal a compaction had not
+     * finished folding, and the new file is loaded on its own.
+     *
+     * @return The new file's inventory, or null if it cannot be read or the journal cannot be moved
+     */
+    Dealership reloadChangedFile() {
+        flush();
+        synchronized (snapshotLock) {
+            synchronized (journalLock) {
+                Path superseded = Paths.get(filePath + ".journal.superseded-" + System.currentTimeMillis());
+                try {
+                    // A snapshot left by a cut-short swap is older than the file that replaced it
+                    Files.deleteIfExists(fullSnapshotPath);
+                    Files.deleteIfExists(nextSnapshotPath);
+                    setAside(compactingJournalPath, superseded);
+                    setAside(journalPath, superseded);
+                } catch (IOException e) {
+                    System.err.println("Error setting aside the dealership journal: " + e.getMessage());
+                    return null;
+                }
+                if (Files.exists(superseded)) {
+                    System.err.println("The dealership file was replaced; edits not written to it were moved to "
+                            + superseded);
                 }
+                return load();
             }
+        }
+    }
+
+    // Moves a journal to the end of another file
+    private static void setAside(Path journal, Path target) throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        if (Files.exists(target)) {
+            Files.write(target, Files.readAllBytes(journal), StandardOpenOption.APPEND);
+            Files.delete(journal);
+        } else {
+            Files.move(journal, target);
+        }
+    }
+
+    // Reads the file and replays its journal; called with snapshotLock and journalLock held
+    private Dealership load() {
+        long start = InventoryMetrics.start();
+        boolean interrupted = false;
+        try {
+            interrupted = recoverSnapshot();
         } catch (IOException e) {
             System.err.println("Error reading dealership file: " + e.getMessage());
         }
-
+        knownSnapshot = snapshotIdentity();
+        LoadHandler handler = new LoadHandler(concurrentAccess);
+        Dealership dealership = readSnapshot(handler);
+        if (dealership == null) {
+            return null;
+        }
+        InventoryMetrics.ROWS_LOADED.add(dealership.size());
+        InventoryMetrics.ROWS_REJECTED.add(handler.rejected);
+        try {
+            if (interrupted) {
+                // A compaction was cut short; finish folding its journal before the live one
+                InventoryJournal.replay(compactingJournalPath, dealership, Charset.defaultCharset());
+                writeSnapshot(dealership.getName(), dealership.getAddress(), dealership.getPhone(),
+                        dealership.getAllVehicles(), false);
+            }
+            InventoryJournal.replay(journalPath, dealership, Charset.defaultCharset());
+        } catch (IOException e) {
+            System.err.println("Error reading dealership journal: " + e.getMessage());
+        }
+        dealership.setTrackingChanges(true);
+        synchronized (pendingSaves) {
+            journaledDealership = dealership;
+            writtenGeneration = ++snapshotGeneration;
+        }
+        InventoryMetrics.LOAD.record(start);
         return dealership;
     }
 
+    private Dealership readSnapshot(LoadHandler handler) {
+        try {
+            if (CompressedInventoryFile.isCompressed(filePath)) {
+                try (CompressedInventoryFile file = CompressedInventoryFile.open(filePath)) {
+                    file.load(handler, ForkJoinPool.commonPool(), internStrings);
+                }
+            } else if (parallelLoading) {
+                new MappedInventoryLoader(ForkJoinPool.commonPool(), Charset.defaultCharset(), internStrings)
+                        .load(filePath, handler);
+            } else {
+                try (InputStream in = new FileInputStream(filePath)) {
+                    new InventoryParser(Charset.defaultCharset(), internStrings).parse(in, handler);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading dealership file: " + e.getMessage());
+        }
+
+        handler.finish();
+        return handler.dealership;
+    }
+
     /**
-     * Saves the Dealership object to the dealership file
+     * Builds a Dealership from the header and vehicle rows of an inventory file. Rows are
+     * collected and added in one bulk call, so large files get their indexes built in
+     * parallel and loading is not counted as individual adds.
+     */
+    static class LoadHandler implements InventoryParser.Handler {
+        private final boolean concurrent;
+        private final List<Vehicle> vehicles = new ArrayList<>();
+        Dealership dealership;
+        int rejected;
+
+        LoadHandler(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        public boolean header(String line) {
+            // First line contains dealership info
+            String[] dealershipData = line.split(DELIMITER);
+            if (dealershipData.length < 3) {
+                return false;
+            }
+            String name = dealershipData[0].trim();
+            String address = dealershipData[1].trim();
+            String phone = dealershipData[2].trim();
+            dealership = concurrent ? new ConcurrentDealership(name, address, phone) : new Dealership(name, address, phone);
+            return true;
+        }
+
+        @Override
+        public void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                            int odometer, double price) {
+            vehicles.add(new Vehicle(vin, year, make, model, vehicleType, color, odometer, price));
+        }
+
+        @Override
+        public void rejected(NumberFormatException e) {
+            rejected++;
+            System.err.println("Error parsing vehicle data: " + e.getMessage());
+        }
+
+        /**
+         * Adds the collected rows to the dealership
+         */
+        void finish() {
+            if (dealership != null && !vehicles.isEmpty()) {
+                dealership.addVehicles(vehicles);
+                vehicles.clear();
+            }
+        }
+    }
+
+    /**
+     * Saves the Dealership object to the dealership file and waits until it is written.
+     * If the Dealership was loaded or last saved by this manager, only the changes since
+     * then are appended to the journal; otherwise the whole file is rewritten.
      *
      * @param dealership The Dealership object to save
      */
     public void saveDealership(Dealership dealership) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            // Write dealership info
-            writer.write(String.format("%s|%s|%s",
-                    dealership.getName(), dealership.getAddress(), dealership.getPhone()));
-            writer.newLine();
-
-            // Write vehicle info
-            for (Vehicle vehicle : dealership.getAllVehicles()) {
-                writer.write(String.format("%d|%d|%s|%s|%s|%s|%d|%.2f",
-                        vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
-                        vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice()));
-                writer.newLine();
+        try {
+            enqueueSave(dealership, false).join();
+        } catch (CompletionException e) {
+            // A failed journal append leaves the edits only in memory; the retry rewrites the file
+            try {
+                enqueueSave(dealership, false).join();
+            } catch (CompletionException again) {
+                // Already reported by the writer
+            }
+        }
+    }
+
+    /**
+     * Queues a save of the Dealership and returns without waiting for it. The edits are
+     * captured before this returns, so the Dealership can keep changing on this thread
+     * while the save is written.
+     *
+     * @param dealership The Dealership object to save
+     * @return Completes once the save is written, or exceptionally if writing failed
+     */
+    public CompletableFuture<Void> saveDealershipAsync(Dealership dealership) {
+        return enqueueSave(dealership, true);
+    }
+
+    /**
+     * Waits until every save queued so far has been written
+     */
+    public void flush() {
+        ExecutorService current;
+        synchronized (pendingSaves) {
+            current = writer;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Cannot happen for an empty task
+        }
+    }
+
+    /**
+     * Save waiting for the writer. A snapshot save carries the whole inventory, a journal
+     * save the changes made since the save before it.
+     */
+    private static class PendingSave {
+        final int generation;
+        final String name;
+        final String address;
+        final String phone;
+        final Collection<Vehicle> vehicles;
+        final List<InventoryChange> changes;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingSave(int generation, String name, String address, String phone, Collection<Vehicle> vehicles,
+                    List<InventoryChange> changes) {
+            this.generation = generation;
+            this.name = name;
+            this.address = address;
+            this.phone = phone;
+            this.vehicles = vehicles;
+            this.changes = changes;
+        }
+    }
+
+    private CompletableFuture<Void> enqueueSave(Dealership dealership, boolean detach) {
+        // Other threads may keep editing a concurrent Dealership while the writer formats it
+        boolean copyVehicles = detach || dealership instanceof ConcurrentDealership;
+        synchronized (pendingSaves) {
+            // Captures the edits in one step, so none can fall between the rows and the drain
+            PendingSave save = dealership.atomically(() -> capture(dealership, copyVehicles));
+            pendingSaves.add(save);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                writer().execute(this::flushPendingSaves);
+            }
+            return save.done;
+        }
+    }
+
+    // Called with the pendingSaves monitor held
+    private PendingSave capture(Dealership dealership, boolean copyVehicles) {
+        if (dealership == journaledDealership && dealership.isTrackingChanges() && !dealership.isSnapshotRequired()) {
+            return new PendingSave(snapshotGeneration, null, null, null, null, dealership.drainChanges());
+        }
+        List<Vehicle> vehicles = dealership.getAllVehicles();
+        if (copyVehicles) {
+            // The caller keeps editing these vehicles while the writer formats them
+            List<Vehicle> copies = new ArrayList<>(vehicles.size());
+            for (Vehicle vehicle : vehicles) {
+                copies.add(new Vehicle(vehicle.getVin(), vehicle.getYear(), vehicle.getMake(),
+                        vehicle.getModel(), vehicle.getVehicleType(), vehicle.getColor(),
+                        vehicle.getOdometer(), vehicle.getPrice()));
+            }
+            vehicles = copies;
+        }
+        dealership.drainChanges();
+        dealership.setTrackingChanges(true);
+        journaledDealership = dealership;
+        return new PendingSave(++snapshotGeneration, dealership.getName(), dealership.getAddress(),
+                dealership.getPhone(), vehicles, null);
+    }
+
+    // Runs on the writer thread. Only the newest snapshot save matters; the changes after
+    // it go out in one journal append.
+    private void flushPendingSaves() {
+        List<PendingSave> batch;
+        synchronized (pendingSaves) {
+            batch = new ArrayList<>(pendingSaves);
+            pendingSaves.clear();
+            flushScheduled = false;
+        }
+        int lastSnapshot = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).vehicles != null) {
+                lastSnapshot = i;
             }
+        }
+
+        boolean failed = false;
+        if (lastSnapshot >= 0) {
+            PendingSave save = batch.get(lastSnapshot);
+            synchronized (snapshotLock) {
+                synchronized (journalLock) {
+                    failed = !writeSnapshot(save.name, save.address, save.phone, save.vehicles, true);
+                }
+            }
+            writeFinished(save.generation, failed);
+        }
+
+        List<InventoryChange> changes = new ArrayList<>();
+        int generation;
+        synchronized (pendingSaves) {
+            generation = writtenGeneration;
+        }
+        for (int i = lastSnapshot + 1; i < batch.size(); i++) {
+            // Changes made on top of a snapshot that never reached the disk are dropped; the
+            // Dealership still has them and its next save rewrites the file
+            if (batch.get(i).generation == generation) {
+                changes.addAll(batch.get(i).changes);
+            }
+        }
+        long journalLength = 0;
+        if (!changes.isEmpty()) {
+            long start = InventoryMetrics.start();
+            synchronized (journalLock) {
+                try {
+                    journalLength = InventoryJournal.append(journalPath, changes, Charset.defaultCharset(), syncWrites);
+                } catch (IOException e) {
+                    System.err.println("Error writing to dealership journal: " + e.getMessage());
+                    failed = true;
+                }
+            }
+            InventoryMetrics.SAVE_JOURNAL.record(start);
+            if (failed) {
+                writeFinished(generation, true);
+            }
+        }
+
+        if (failed) {
+            InventoryMetrics.SAVE_FAILURES.add(1);
+        }
+        for (PendingSave save : batch) {
+            if (failed) {
+                save.done.completeExceptionally(new IOException("Error writing to dealership file " + filePath));
+            } else {
+                save.done.complete(null);
+            }
+        }
+        if (journalLength >= compactionThreshold) {
+            scheduleCompaction();
+        }
+    }
+
+    private void writeFinished(int generation, boolean failed) {
+        synchronized (pendingSaves) {
+            if (!failed) {
+                writtenGeneration = generation;
+            } else {
+                writtenGeneration = -1;
+                if (snapshotGeneration == generation) {
+                    // Nothing newer is on its way, so the next save has to rewrite the file
+                    journaledDealership = null;
+                }
+            }
+        }
+    }
+
+    private ExecutorService writer() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "inventory-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writer;
+    }
+
+    /**
+     * Folds the journal into a fresh dealership file. Runs on the calling thread; saves
+     * keep appending to a new journal while it works. The Dealership in memory is not
+     * touched, since the fold only reads the files.
+     */
+    public void compactJournal() {
+        synchronized (snapshotLock) {
+            synchronized (journalLock) {
+                if (knownSnapshot != null && isFileChanged()) {
+                    // The journal does not belong on the file another program put there
+                    return;
+                }
+                try {
+                    // A journal left by a failed compaction is folded first; the live one waits its turn
+                    if (!Files.exists(compactingJournalPath)) {
+                        if (!Files.exists(journalPath)) {
+                            return;
+                        }
+                        Files.move(journalPath, compactingJournalPath);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error compacting dealership journal: " + e.getMessage());
+                    return;
+                }
+            }
+
+            Dealership folded = readSnapshot(new LoadHandler(false) {
+                @Override
+                public void rejected(NumberFormatException e) {
+                    // Already reported when the file was loaded
+                }
+            });
+            if (folded == null) {
+                return;
+            }
+            try {
+                InventoryJournal.replay(compactingJournalPath, folded, Charset.defaultCharset());
+            } catch (IOException e) {
+                System.err.println("Error compacting dealership journal: " + e.getMessage());
+                return;
+            }
+            writeSnapshot(folded.getName(), folded.getAddress(), folded.getPhone(), folded.getAllVehicles(), false);
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        compactor().execute(() -> {
+            compactionScheduled.set(false);
+            compactJournal();
+        });
+    }
+
+    private synchronized ExecutorService compactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "inventory-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return compactor;
+    }
+
+    /**
+     * Replaces the dealership file with the given inventory. The new file is written to
+     * {@code .tmp} and renamed once complete, which is the point where the swap can no
+     * longer be lost: {@link #recoverSnapshot()} drops the journals it replaces and moves it
+     * over the dealership file. Must be called with snapshotLock held, and with journalLock
+     * held too when the journal is replaced.
+     *
+     * @param replaceJournal true if the inventory already contains every journaled change,
+     *                       false if it only contains the journal being compacted
+     * @return true if the file was replaced
+     */
+    private boolean writeSnapshot(String name, String address, String phone, Collection<Vehicle> vehicles,
+                                  boolean replaceJournal) {
+        long start = InventoryMetrics.start();
+        try {
+            try (SnapshotWriter snapshot = new SnapshotWriter(tempSnapshotPath, Charset.defaultCharset(), syncWrites)) {
+                if (compressedStorage) {
+                    CompressedInventoryFile.BlockWriter blocks = new CompressedInventoryFile.BlockWriter(
+                            snapshot.stream(), ForkJoinPool.commonPool(), name, address, phone);
+                    for (Vehicle vehicle : vehicles) {
+                        blocks.add(vehicle);
+                    }
+                    blocks.finish();
+                } else {
+                    Writer writer = snapshot.writer();
+                    String lineSeparator = System.lineSeparator();
+                    VehicleFormatter formatter = new VehicleFormatter();
+
+                    // Write dealership info
+                    formatter.append(name).append('|').append(address).append('|').append(phone).append(lineSeparator);
+
+                    // Write vehicle info
+                    for (Vehicle vehicle : vehicles) {
+                        formatter.appendRow(vehicle).append(lineSeparator);
+                        if (formatter.length() >= WRITE_CHUNK) {
+                            formatter.writeTo(writer);
+                            formatter.clear();
+                        }
+                    }
+                    formatter.writeTo(writer);
+                }
+                InventoryMetrics.BYTES_WRITTEN.add(snapshot.commit(replaceJournal ? fullSnapshotPath : nextSnapshotPath));
+            }
+            recoverSnapshot();
+            InventoryMetrics.SAVE_SNAPSHOT.record(start);
+            return true;
         } catch (IOException e) {
             System.err.println("Error writing to dealership file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the inventory file was replaced or changed by someone other than this
+     * manager since it last loaded or wrote the file
+     *
+     * @return true if the file exists and is not the one this manager knows
+     */
+    boolean isFileChanged() {
+        Object current = snapshotIdentity();
+        return current != null && !current.equals(knownSnapshot);
+    }
+
+    private Object snapshotIdentity() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(snapshotPath, BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finishes a snapshot swap that was interrupted after the new file was complete
+     *
+     * @return true if a journal from an interrupted compaction is still waiting to be folded
+     */
+    private boolean recoverSnapshot() throws IOException {
+        if (Files.exists(fullSnapshotPath)) {
+            Files.deleteIfExists(compactingJournalPath);
+            Files.deleteIfExists(journalPath);
+            SnapshotWriter.move(fullSnapshotPath, snapshotPath);
+            knownSnapshot = snapshotIdentity();
+            if (syncWrites) {
+                SnapshotWriter.syncDirectory(snapshotPath);
+            }
+        } else if (Files.exists(nextSnapshotPath)) {
+            Files.deleteIfExists(compactingJournalPath);
+            SnapshotWriter.move(nextSnapshotPath, snapshotPath);
+            knownSnapshot = snapshotIdentity();
+            if (syncWrites) {
+                SnapshotWriter.syncDirectory(snapshotPath);
+            }
         }
+        Files.deleteIfExists(tempSnapshotPath);
+        return Files.exists(compactingJournalPath);
     }
 }
\ No newline at end of file
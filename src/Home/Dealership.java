@@ -1,16 +1,82 @@
 package com.dealership.model;
 
+import com.dealership.metrics.InventoryMetrics;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a dealership with its information and inventory
+ * <p>
+ * Query results are cached until the next add, remove or vehicle edit, so the
+ * {@code getVehiclesBy*} methods, {@link #search(VehicleQuery)} and
+ * {@link #page(VehicleQuery, String, int)} return read-only lists that may be shared
+ * between callers. The cache holds up to 100,000 vehicles unless the system property
+ * {@code dealership.queryCache} sets another capacity; 0 turns it off.
  */
-public class Dealership {
+public class Dealership implements InventoryStore {
+    // Batches smaller than this are indexed on the calling thread
+    private static final int PARALLEL_INDEX_THRESHOLD = 50_000;
+    // Queries expected to return fewer vehicles than this run on the calling thread
+    private static final int DEFAULT_PARALLEL_QUERY_THRESHOLD = 100_000;
+    // Segments per fork-join worker, so a slow segment does not hold up the whole query
+    private static final int SEGMENTS_PER_WORKER = 4;
+    // Vehicles, plus one per entry, that the query cache holds by default
+    private static final int DEFAULT_QUERY_CACHE_CAPACITY = 100_000;
+    // Vehicles fetched per page by stream()
+    private static final int STREAM_PAGE_SIZE = 256;
+
     private String name;
     private String address;
     private String phone;
     private ArrayList<Vehicle> inventory;
+    // Removed vehicles leave a null slot so later slots keep their position
+    private int size;
+    private VinIndex vinIndex;
+    // Live vehicles whose VIN is shadowed in the index by an earlier duplicate
+    private int shadowedVins;
+    // Bumped whenever compaction renumbers the slots
+    private int layoutVersion;
+    // Sequence number for the next vehicle added; slots are always in sequence order
+    private long nextSequence;
+    private RangeIndex<Double> priceIndex;
+    private RangeIndex<Integer> yearIndex;
+    private RangeIndex<Integer> odometerIndex;
+    private TermIndex makeIndex;
+    private TermIndex modelIndex;
+    private TermIndex colorIndex;
+    private TermIndex typeIndex;
+    private QueryPlanner planner;
+    private boolean parallelQueries = Boolean.getBoolean("dealership.parallelQueries");
+    private int parallelQueryThreshold = DEFAULT_PARALLEL_QUERY_THRESHOLD;
+    // Bumped by every add, remove and vehicle edit; cached results from an older version are stale
+    private long version;
+    // Null when caching is turned off
+    private QueryCache queryCache;
+    // Edits not yet drained, or null when changes are not being tracked
+    private List<InventoryChange> changes;
+    private boolean snapshotRequired;
 
     /**
      * Constructor for the Dealership class
@@ -24,6 +90,17 @@ public class Dealership {
         this.address = address;
         this.phone = phone;
         this.inventory = new ArrayList<>();
+        this.vinIndex = new VinIndex(16);
+        this.priceIndex = new RangeIndex<>();
+        this.yearIndex = new RangeIndex<>();
+        this.odometerIndex = new RangeIndex<>();
+        this.makeIndex = new TermIndex();
+        this.modelIndex = new TermIndex();
+        this.colorIndex = new TermIndex();
+        this.typeIndex = new TermIndex();
+        this.planner = new QueryPlanner(priceIndex, yearIndex, odometerIndex, makeIndex, modelIndex, colorIndex, typeIndex);
+        int cacheCapacity = Integer.getInteger("dealership.queryCache", DEFAULT_QUERY_CACHE_CAPACITY);
+        this.queryCache = cacheCapacity > 0 ? new QueryCache(cacheCapacity) : null;
     }
 
     // Getters and Setters
@@ -32,6 +109,9 @@ public class Dealership {
     }
 
     public void setName(String name) {
+        if (changes != null && !Objects.equals(this.name, name)) {
+            snapshotRequired = true;
+        }
         this.name = name;
     }
 
@@ -40,6 +120,9 @@ public class Dealership {
     }
 
     public void setAddress(String address) {
+        if (changes != null && !Objects.equals(this.address, address)) {
+            snapshotRequired = true;
+        }
         this.address = address;
     }
 
@@ -48,6 +131,9 @@ public class Dealership {
     }
 
     public void setPhone(String phone) {
+        if (changes != null && !Objects.equals(this.phone, phone)) {
+            snapshotRequired = true;
+        }
         this.phone = phone;
     }
 
@@ -57,7 +143,94 @@ public class Dealership {
      * @param vehicle Vehicle to add
      */
     public void addVehicle(Vehicle vehicle) {
+        long start = InventoryMetrics.start();
+        insert(vehicle);
+        InventoryMetrics.ADD_VEHICLE.record(start);
+    }
+
+    private void insert(Vehicle vehicle) {
+        if (vehicle.owner != null) {
+            throw new IllegalArgumentException("Vehicle " + vehicle.getVin() + " already belongs to an inventory");
+        }
+        int slot = inventory.size();
         inventory.add(vehicle);
+        vehicle.owner = this;
+        vehicle.slot = slot;
+        vehicle.sequence = nextSequence++;
+        size++;
+        version++;
+        indexVin(vehicle);
+        indexFields(vehicle);
+        if (changes != null) {
+            changes.add(InventoryChange.add(vehicle));
+        }
+    }
+
+    /**
+     * Adds many vehicles at once, in order. Large batches build each secondary index on
+     * its own fork-join task, since the indexes are independent of each other.
+     *
+     * @param vehicles Vehicles to add
+     */
+    public void addVehicles(Collection<Vehicle> vehicles) {
+        int first = inventory.size();
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.owner != null) {
+                for (int slot = first; slot < inventory.size(); slot++) {
+                    inventory.get(slot).owner = null;
+                }
+                inventory.subList(first, inventory.size()).clear();
+                throw new IllegalArgumentException("Vehicle " + vehicle.getVin() + " already belongs to an inventory");
+            }
+            vehicle.owner = this;
+            vehicle.slot = inventory.size();
+            vehicle.sequence = nextSequence++;
+            inventory.add(vehicle);
+        }
+        int end = inventory.size();
+        size += end - first;
+        version++;
+        if (changes != null) {
+            for (int slot = first; slot < end; slot++) {
+                changes.add(InventoryChange.add(inventory.get(slot)));
+            }
+        }
+
+        if (end - first < PARALLEL_INDEX_THRESHOLD) {
+            for (int slot = first; slot < end; slot++) {
+                indexVin(inventory.get(slot));
+                indexFields(inventory.get(slot));
+            }
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        tasks.add(indexTask(first, end, this::indexVin));
+        tasks.add(indexTask(first, end, v -> priceIndex.add(priceKey(v.getPrice()), v.slot)));
+        tasks.add(indexTask(first, end, v -> yearIndex.add(v.getYear(), v.slot)));
+        tasks.add(indexTask(first, end, v -> odometerIndex.add(v.getOdometer(), v.slot)));
+        tasks.add(indexTask(first, end, v -> makeIndex.add(v.getMake(), v.slot)));
+        tasks.add(indexTask(first, end, v -> modelIndex.add(v.getModel(), v.slot)));
+        tasks.add(indexTask(first, end, v -> colorIndex.add(v.getColor(), v.slot)));
+        tasks.add(indexTask(first, end, v -> typeIndex.add(v.getVehicleType(), v.slot)));
+        for (Future<Void> task : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while indexing vehicles", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to index vehicles", e.getCause());
+            }
+        }
+    }
+
+    private Callable<Void> indexTask(int first, int end, Consumer<Vehicle> indexer) {
+        return () -> {
+            for (int slot = first; slot < end; slot++) {
+                indexer.accept(inventory.get(slot));
+            }
+            return null;
+        };
     }
 
     /**
@@ -67,12 +240,556 @@ public class Dealership {
      * @return The removed vehicle, or null if not found
      */
     public Vehicle removeVehicle(int vin) {
-        for (int i = 0; i < inventory.size(); i++) {
-            if (inventory.get(i).getVin() == vin) {
-                return inventory.remove(i);
+        long start = InventoryMetrics.start();
+        Vehicle result = remove(vin);
+        InventoryMetrics.REMOVE_VEHICLE.record(start);
+        return result;
+    }
+
+    private Vehicle remove(int vin) {
+        int slot = vinIndex.get(vin);
+        if (slot < 0) {
+            return null;
+        }
+        Vehicle vehicle = inventory.get(slot);
+        unindexVin(vin, slot);
+        unindexFields(vehicle);
+        inventory.set(slot, null);
+        vehicle.owner = null;
+        vehicle.slot = -1;
+        size--;
+        version++;
+        if (changes != null) {
+            changes.add(InventoryChange.remove(vin));
+        }
+        compactIfSparse();
+        return vehicle;
+    }
+
+    /**
+     * Finds a vehicle by VIN
+     *
+     * @param vin VIN of the vehicle
+     * @return The vehicle, or null if not found
+     */
+    public Vehicle findByVin(int vin) {
+        long start = InventoryMetrics.start();
+        int slot = vinIndex.get(vin);
+        Vehicle vehicle = slot < 0 ? null : inventory.get(slot);
+        InventoryMetrics.FIND_BY_VIN.record(start);
+        return vehicle;
+    }
+
+    /**
+     * Checks whether a vehicle with the given VIN is in the inventory
+     *
+     * @param vin VIN to check
+     * @return true if a vehicle with this VIN exists
+     */
+    public boolean containsVin(int vin) {
+        return vinIndex.get(vin) >= 0;
+    }
+
+    /**
+     * Returns the number of vehicles in the inventory
+     *
+     * @return Number of vehicles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Starts or stops recording edits as {@link InventoryChange}s. Stopping discards any
+     * changes that have not been drained.
+     *
+     * @param tracking true to record changes from now on
+     */
+    public void setTrackingChanges(boolean tracking) {
+        if (tracking && changes == null) {
+            changes = new ArrayList<>();
+        } else if (!tracking) {
+            changes = null;
+        }
+        snapshotRequired = false;
+    }
+
+    public boolean isTrackingChanges() {
+        return changes != null;
+    }
+
+    /**
+     * Turns parallel queries on or off. They start off unless the system property
+     * {@code dealership.parallelQueries} is {@code true}. When on, a query expected to
+     * return at least {@link #getParallelQueryThreshold()} vehicles splits the inventory into
+     * segments and filters them on the common fork-join pool. Results keep the same order
+     * either way.
+     *
+     * @param parallel true to run large queries in parallel
+     */
+    public void setParallelQueries(boolean parallel) {
+        this.parallelQueries = parallel;
+    }
+
+    public boolean isParallelQueries() {
+        return parallelQueries;
+    }
+
+    /**
+     * Sets the expected number of results from which a query runs in parallel
+     *
+     * @param threshold Minimum expected results, at least 1
+     */
+    public void setParallelQueryThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallel query threshold must be positive: " + threshold);
+        }
+        this.parallelQueryThreshold = threshold;
+    }
+
+    public int getParallelQueryThreshold() {
+        return parallelQueryThreshold;
+    }
+
+    /**
+     * Replaces the query cache with an empty one of the given size, or turns caching off
+     *
+     * @param capacity Maximum number of vehicles held across cached results, counting one
+     *                 more per result; 0 turns caching off
+     */
+    public void setQueryCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Query cache capacity cannot be negative: " + capacity);
+        }
+        queryCache = capacity > 0 ? new QueryCache(capacity) : null;
+    }
+
+    public int getQueryCacheCapacity() {
+        return queryCache == null ? 0 : queryCache.getCapacity();
+    }
+
+    /**
+     * @return Hit, miss and eviction counts of the query cache since it was created, all
+     * zero when caching is off
+     */
+    public QueryCacheStats getQueryCacheStats() {
+        return queryCache == null ? new QueryCacheStats(0, 0, 0, 0, 0, 0, 0) : queryCache.stats();
+    }
+
+    /**
+     * @return true if an edit since the last drain cannot be replayed by VIN: a change to
+     * the dealership's own details, or an update to a vehicle shadowed by an earlier vehicle
+     * with the same VIN. The whole inventory has to be written out in that case.
+     */
+    public boolean isSnapshotRequired() {
+        return snapshotRequired;
+    }
+
+    /**
+     * Returns the changes recorded since the last drain, oldest first, and starts a new batch
+     *
+     * @return The recorded changes, empty if changes are not being tracked
+     */
+    public List<InventoryChange> drainChanges() {
+        if (changes == null) {
+            return new ArrayList<>();
+        }
+        List<InventoryChange> drained = changes;
+        changes = new ArrayList<>();
+        snapshotRequired = false;
+        return drained;
+    }
+
+    /**
+     * Starts comparing this inventory with an incoming list of vehicles, such as a newer
+     * copy of the inventory file. Apply the result with {@link InventoryDiff#apply()} to bring
+     * this inventory up to date in place, keeping its indexes instead of rebuilding them.
+     *
+     * @return An empty diff against the inventory as it is now
+     */
+    public InventoryDiff diff() {
+        return new InventoryDiff(this, version);
+    }
+
+    /**
+     * Called by {@link InventoryDiff#compare(List)} with a batch of incoming vehicles
+     */
+    void compare(InventoryDiff diff, List<Vehicle> incoming) {
+        for (Vehicle vehicle : incoming) {
+            int slot = vinIndex.get(vehicle.getVin());
+            diff.match(slot, slot < 0 ? null : inventory.get(slot), vehicle);
+        }
+    }
+
+    /**
+     * Called by {@link InventoryDiff#finish()} to record every vehicle no incoming vehicle matched
+     */
+    void collectRemoved(InventoryDiff diff) {
+        for (int slot = 0; slot < inventory.size(); slot++) {
+            Vehicle vehicle = inventory.get(slot);
+            if (vehicle != null && !diff.isSeen(slot)) {
+                int indexed = vinIndex.get(vehicle.getVin());
+                if (indexed != slot && diff.isSeen(indexed)) {
+                    // The VIN stays, so a removal by VIN would take the vehicle the diff kept
+                    diff.removedShadowed(vehicle);
+                } else {
+                    diff.removed(vehicle.getVin());
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by {@link InventoryDiff#apply()} to remove a vehicle whose VIN is shadowed by an
+     * earlier duplicate. A removal keyed by VIN would take the earlier vehicle instead, so
+     * none is recorded and the next save rewrites the file.
+     *
+     * @param vehicle Vehicle to remove
+     * @return true if it was removed
+     */
+    boolean removeShadowed(Vehicle vehicle) {
+        if (vehicle.owner != this || vinIndex.get(vehicle.getVin()) == vehicle.slot) {
+            return false;
+        }
+        shadowedVins--;
+        unindexFields(vehicle);
+        inventory.set(vehicle.slot, null);
+        vehicle.owner = null;
+        vehicle.slot = -1;
+        size--;
+        version++;
+        if (changes != null) {
+            snapshotRequired = true;
+        }
+        compactIfSparse();
+        return true;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Runs several calls against this Dealership as one step that no other thread's edits
+     * can interleave with. A plain Dealership is not thread-safe and simply runs the action;
+     * {@link ConcurrentDealership} runs it under its write lock.
+     *
+     * @param action Calls to run
+     * @return The action's result
+     */
+    public <T> T atomically(Supplier<T> action) {
+        return action.get();
+    }
+
+    /**
+     * Runs several reads against this Dealership as one step that no other thread's edits
+     * can change midway, such as formatting vehicles whose fields another thread may set.
+     * A plain Dealership simply runs the action; {@link ConcurrentDealership} runs it under
+     * its read lock, so other readers are not held up.
+     *
+     * @param action Calls to run; must not edit the inventory
+     * @return The action's result
+     */
+    public <T> T reading(Supplier<T> action) {
+        return action.get();
+    }
+
+    /**
+     * Called by {@link Vehicle#setVin(int)} to move the vehicle to its new VIN in the index
+     */
+    void vinChanged(Vehicle vehicle, int oldVin) {
+        recordUpdate(vehicle, oldVin);
+        if (vinIndex.get(oldVin) == vehicle.slot) {
+            unindexVin(oldVin, vehicle.slot);
+        } else {
+            shadowedVins--;
+        }
+        indexVin(vehicle);
+    }
+
+    /**
+     * Called by {@link Vehicle#setPrice(double)} to re-sort the vehicle in the price index
+     */
+    void priceChanged(Vehicle vehicle, double oldPrice) {
+        recordUpdate(vehicle, vehicle.getVin());
+        priceIndex.remove(priceKey(oldPrice), vehicle.slot);
+        priceIndex.add(priceKey(vehicle.getPrice()), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setYear(int)} to re-sort the vehicle in the year index
+     */
+    void yearChanged(Vehicle vehicle, int oldYear) {
+        recordUpdate(vehicle, vehicle.getVin());
+        yearIndex.remove(oldYear, vehicle.slot);
+        yearIndex.add(vehicle.getYear(), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setOdometer(int)} to re-sort the vehicle in the odometer index
+     */
+    void odometerChanged(Vehicle vehicle, int oldOdometer) {
+        recordUpdate(vehicle, vehicle.getVin());
+        odometerIndex.remove(oldOdometer, vehicle.slot);
+        odometerIndex.add(vehicle.getOdometer(), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setMake(String)} to move the vehicle to its new make posting
+     */
+    void makeChanged(Vehicle vehicle, String oldMake) {
+        recordUpdate(vehicle, vehicle.getVin());
+        makeIndex.remove(oldMake, vehicle.slot);
+        makeIndex.add(vehicle.getMake(), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setModel(String)} to move the vehicle to its new model posting
+     */
+    void modelChanged(Vehicle vehicle, String oldModel) {
+        recordUpdate(vehicle, vehicle.getVin());
+        modelIndex.remove(oldModel, vehicle.slot);
+        modelIndex.add(vehicle.getModel(), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setColor(String)} to move the vehicle to its new color posting
+     */
+    void colorChanged(Vehicle vehicle, String oldColor) {
+        recordUpdate(vehicle, vehicle.getVin());
+        colorIndex.remove(oldColor, vehicle.slot);
+        colorIndex.add(vehicle.getColor(), vehicle.slot);
+    }
+
+    /**
+     * Called by {@link Vehicle#setVehicleType(String)} to move the vehicle to its new type posting
+     */
+    void vehicleTypeChanged(Vehicle vehicle, String oldType) {
+        recordUpdate(vehicle, vehicle.getVin());
+        typeIndex.remove(oldType, vehicle.slot);
+        typeIndex.add(vehicle.getVehicleType(), vehicle.slot);
+    }
+
+    // Only the vehicle the VIN index points at can be addressed by VIN when the change is replayed
+    private void recordUpdate(Vehicle vehicle, int vin) {
+        // Any edit can change which queries the vehicle matches
+        version++;
+        if (changes == null) {
+            return;
+        }
+        if (vinIndex.get(vin) == vehicle.slot) {
+            changes.add(InventoryChange.update(vin, vehicle));
+        } else {
+            snapshotRequired = true;
+        }
+    }
+
+    // Double.compareTo orders -0.0 before 0.0, while the range filters treat them as equal
+    static double priceKey(double price) {
+        return price == 0.0 ? 0.0 : price;
+    }
+
+    private void indexFields(Vehicle vehicle) {
+        priceIndex.add(priceKey(vehicle.getPrice()), vehicle.slot);
+        yearIndex.add(vehicle.getYear(), vehicle.slot);
+        odometerIndex.add(vehicle.getOdometer(), vehicle.slot);
+        makeIndex.add(vehicle.getMake(), vehicle.slot);
+        modelIndex.add(vehicle.getModel(), vehicle.slot);
+        colorIndex.add(vehicle.getColor(), vehicle.slot);
+        typeIndex.add(vehicle.getVehicleType(), vehicle.slot);
+    }
+
+    private void unindexFields(Vehicle vehicle) {
+        priceIndex.remove(priceKey(vehicle.getPrice()), vehicle.slot);
+        yearIndex.remove(vehicle.getYear(), vehicle.slot);
+        odometerIndex.remove(vehicle.getOdometer(), vehicle.slot);
+        makeIndex.remove(vehicle.getMake(), vehicle.slot);
+        modelIndex.remove(vehicle.getModel(), vehicle.slot);
+        colorIndex.remove(vehicle.getColor(), vehicle.slot);
+        typeIndex.remove(vehicle.getVehicleType(), vehicle.slot);
+    }
+
+    private void indexVin(Vehicle vehicle) {
+        int existing = vinIndex.get(vehicle.getVin());
+        if (existing < 0) {
+            vinIndex.put(vehicle.getVin(), vehicle.slot);
+        } else if (existing > vehicle.slot) {
+            // An earlier slot always wins so removal order matches a front-to-back scan
+            vinIndex.put(vehicle.getVin(), vehicle.slot);
+            shadowedVins++;
+        } else {
+            shadowedVins++;
+        }
+    }
+
+    private void unindexVin(int vin, int slot) {
+        if (shadowedVins > 0) {
+            // Promote the next duplicate, if any, so it becomes findable again
+            for (int i = slot + 1; i < inventory.size(); i++) {
+                Vehicle next = inventory.get(i);
+                if (next != null && next.getVin() == vin) {
+                    vinIndex.put(vin, i);
+                    shadowedVins--;
+                    return;
+                }
+            }
+        }
+        vinIndex.remove(vin);
+    }
+
+    // Drops null slots once they make up more than half of the list, then renumbers
+    private void compactIfSparse() {
+        if (inventory.size() < 64 || size * 2 > inventory.size()) {
+            return;
+        }
+        ArrayList<Vehicle> compacted = new ArrayList<>(size);
+        for (Vehicle vehicle : inventory) {
+            if (vehicle != null) {
+                vehicle.slot = compacted.size();
+                compacted.add(vehicle);
+            }
+        }
+        inventory = compacted;
+        layoutVersion++;
+        vinIndex.clear();
+        shadowedVins = 0;
+        priceIndex.clear();
+        yearIndex.clear();
+        odometerIndex.clear();
+        makeIndex.clear();
+        modelIndex.clear();
+        colorIndex.clear();
+        typeIndex.clear();
+        for (Vehicle vehicle : inventory) {
+            indexVin(vehicle);
+            indexFields(vehicle);
+        }
+    }
+
+    private boolean runsInParallel(int expected) {
+        return parallelQueries && expected >= parallelQueryThreshold;
+    }
+
+    /**
+     * Filters the inventory on the common fork-join pool, one task per segment of slots,
+     * and joins the segments' results in slot order
+     *
+     * @param candidates Slots to look at, or null for every slot
+     * @param filter     Test a vehicle must pass
+     * @param expected   Expected number of matches, used to size each segment's buffer
+     * @param limit      Results needed, so each segment can stop once it has this many
+     * @return Matching vehicles in slot order, at most limit of them
+     */
+    private List<Vehicle> filterInParallel(BitSet candidates, Predicate<Vehicle> filter, int expected, int limit) {
+        int end = candidates == null ? inventory.size() : Math.min(candidates.length(), inventory.size());
+        int segments = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * SEGMENTS_PER_WORKER);
+        int segmentLength = Math.max(1, (end + segments - 1) / segments);
+        // Matches are assumed to be spread evenly, with some slack so that most segments never grow
+        int capacity = Math.min(limit, expected / segments + expected / (segments * 8) + 16);
+        List<Callable<Segment>> tasks = new ArrayList<>(segments);
+        for (int from = 0; from < end; from += segmentLength) {
+            int first = from;
+            int last = Math.min(end, from + segmentLength);
+            tasks.add(() -> {
+                Segment segment = new Segment(capacity);
+                for (int slot = nextCandidate(candidates, first); slot >= 0 && slot < last;
+                     slot = nextCandidate(candidates, slot + 1)) {
+                    Vehicle vehicle = inventory.get(slot);
+                    if (vehicle != null && filter.test(vehicle)) {
+                        segment.add(vehicle);
+                        if (segment.count == limit) {
+                            break;
+                        }
+                    }
+                }
+                return segment;
+            });
+        }
+
+        List<Segment> parts = new ArrayList<>(tasks.size());
+        int total = 0;
+        for (Future<Segment> task : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                Segment part = task.get();
+                parts.add(part);
+                total += part.count;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching vehicles", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to search vehicles", e.getCause());
             }
         }
-        return null;
+        Vehicle[] joined = new Vehicle[Math.min(total, limit)];
+        int pos = 0;
+        for (Segment part : parts) {
+            int count = Math.min(part.count, joined.length - pos);
+            System.arraycopy(part.found, 0, joined, pos, count);
+            pos += count;
+        }
+        return new ArrayList<>(Arrays.asList(joined));
+    }
+
+    // Matches found in one segment by filterInParallel
+    private static final class Segment {
+        private Vehicle[] found;
+        private int count;
+
+        Segment(int capacity) {
+            found = new Vehicle[Math.max(1, capacity)];
+        }
+
+        void add(Vehicle vehicle) {
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = vehicle;
+        }
+    }
+
+    /**
+     * Returns a cached result, or runs the query and caches what it returns
+     *
+     * @param key   Query parameters, normalized so that equivalent queries are equal
+     * @param query Query to run on a miss
+     * @return Read-only result if caching is on
+     */
+    private List<Vehicle> cached(Object key, Supplier<List<Vehicle>> query) {
+        QueryCache cache = queryCache;
+        if (cache == null) {
+            return query.get();
+        }
+        @SuppressWarnings("unchecked")
+        List<Vehicle> result = (List<Vehicle>) cache.get(key, version);
+        if (result == null) {
+            result = Collections.unmodifiableList(query.get());
+            cache.put(key, version, result, result.size());
+        }
+        return result;
+    }
+
+    private static String termKey(String term) {
+        return term == null ? "" : TermIndex.normalize(term);
+    }
+
+    private List<Vehicle> vehiclesAt(BitSet slots) {
+        int count = slots.cardinality();
+        if (runsInParallel(count)) {
+            return filterInParallel(slots, vehicle -> true, count, Integer.MAX_VALUE);
+        }
+        List<Vehicle> result = new ArrayList<>(count);
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            result.add(inventory.get(slot));
+        }
+        return result;
+    }
+
+    private List<Vehicle> vehiclesAt(int[] slots) {
+        List<Vehicle> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(inventory.get(slot));
+        }
+        return result;
     }
 
     /**
@@ -81,7 +798,24 @@ public class Dealership {
      * @return List of all vehicles
      */
     public List<Vehicle> getAllVehicles() {
-        return new ArrayList<>(inventory);
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = allVehicles();
+        InventoryMetrics.GET_ALL_VEHICLES.record(start);
+        return result;
+    }
+
+    // Every live vehicle in slot order, without recording a call
+    List<Vehicle> allVehicles() {
+        if (runsInParallel(size)) {
+            return filterInParallel(null, vehicle -> true, size, Integer.MAX_VALUE);
+        }
+        List<Vehicle> result = new ArrayList<>(size);
+        for (Vehicle vehicle : inventory) {
+            if (vehicle != null) {
+                result.add(vehicle);
+            }
+        }
+        return result;
     }
 
     /**
@@ -92,16 +826,39 @@ public class Dealership {
      * @return List of vehicles in the price range
      */
     public List<Vehicle> getVehiclesByPrice(double min, double max) {
-        List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            double price = vehicle.getPrice();
-            if (price >= min && price <= max) {
-                result.add(vehicle);
-            }
-        }
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("price", min, max), () -> priceRange(min, max));
+        InventoryMetrics.GET_BY_PRICE.record(start);
         return result;
     }
 
+    private List<Vehicle> priceRange(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return new ArrayList<>();
+        }
+        double low = priceKey(min);
+        double high = priceKey(max);
+        int estimate = parallelQueries ? priceIndex.count(low, high, size) : 0;
+        if (runsInParallel(estimate)) {
+            // Compare like the index's keys do
+            return filterInParallel(null, vehicle -> Double.compare(priceKey(vehicle.getPrice()), low) >= 0
+                    && Double.compare(priceKey(vehicle.getPrice()), high) <= 0, estimate, Integer.MAX_VALUE);
+        }
+        return vehiclesAt(priceIndex.range(low, high));
+    }
+
+    // A wide range is filtered straight from the inventory in parallel, instead of merging the index's buckets
+    private List<Vehicle> intRange(RangeIndex<Integer> index, int min, int max, ToIntFunction<Vehicle> field) {
+        int estimate = parallelQueries ? index.count(min, max, size) : 0;
+        if (runsInParallel(estimate)) {
+            return filterInParallel(null, vehicle -> {
+                int value = field.applyAsInt(vehicle);
+                return value >= min && value <= max;
+            }, estimate, Integer.MAX_VALUE);
+        }
+        return vehiclesAt(index.range(min, max));
+    }
+
     /**
      * Returns vehicles of the specified make and model
      *
@@ -110,11 +867,39 @@ public class Dealership {
      * @return List of vehicles with matching make and model
      */
     public List<Vehicle> getVehiclesByMakeModel(String make, String model) {
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("makeModel", termKey(make), termKey(model)),
+                () -> makeModel(make, model));
+        InventoryMetrics.GET_BY_MAKE_MODEL.record(start);
+        return result;
+    }
+
+    private List<Vehicle> makeModel(String make, String model) {
+        boolean anyMake = make == null || make.isEmpty();
+        boolean anyModel = model == null || model.isEmpty();
+        if (anyMake && anyModel) {
+            return allVehicles();
+        }
+        if (anyModel) {
+            return vehiclesAt(makeIndex.get(make));
+        }
+        if (anyMake) {
+            return vehiclesAt(modelIndex.get(model));
+        }
+
+        // Walk the shorter posting list and probe the other one
+        BitSet makes = makeIndex.get(make);
+        BitSet models = modelIndex.get(model);
+        BitSet shorter = makes.cardinality() <= models.cardinality() ? makes : models;
+        BitSet longer = shorter == makes ? models : makes;
+        int candidates = shorter.cardinality();
+        if (runsInParallel(candidates)) {
+            return filterInParallel(shorter, vehicle -> longer.get(vehicle.slot), candidates, Integer.MAX_VALUE);
+        }
         List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            if ((make == null || make.isEmpty() || vehicle.getMake().equalsIgnoreCase(make)) &&
-                    (model == null || model.isEmpty() || vehicle.getModel().equalsIgnoreCase(model))) {
-                result.add(vehicle);
+        for (int slot = shorter.nextSetBit(0); slot >= 0; slot = shorter.nextSetBit(slot + 1)) {
+            if (longer.get(slot)) {
+                result.add(inventory.get(slot));
             }
         }
         return result;
@@ -128,13 +913,10 @@ public class Dealership {
      * @return List of vehicles in the year range
      */
     public List<Vehicle> getVehiclesByYear(int min, int max) {
-        List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            int year = vehicle.getYear();
-            if (year >= min && year <= max) {
-                result.add(vehicle);
-            }
-        }
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("year", min, max),
+                () -> intRange(yearIndex, min, max, Vehicle::getYear));
+        InventoryMetrics.GET_BY_YEAR.record(start);
         return result;
     }
 
@@ -145,12 +927,9 @@ public class Dealership {
      * @return List of vehicles with matching color
      */
     public List<Vehicle> getVehiclesByColor(String color) {
-        List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            if (vehicle.getColor().equalsIgnoreCase(color)) {
-                result.add(vehicle);
-            }
-        }
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("color", termKey(color)), () -> vehiclesAt(colorIndex.get(color)));
+        InventoryMetrics.GET_BY_COLOR.record(start);
         return result;
     }
 
@@ -162,13 +941,10 @@ public class Dealership {
      * @return List of vehicles in the mileage range
      */
     public List<Vehicle> getVehiclesByMileage(int min, int max) {
-        List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            int mileage = vehicle.getOdometer();
-            if (mileage >= min && mileage <= max) {
-                result.add(vehicle);
-            }
-        }
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("mileage", min, max),
+                () -> intRange(odometerIndex, min, max, Vehicle::getOdometer));
+        InventoryMetrics.GET_BY_MILEAGE.record(start);
         return result;
     }
 
@@ -179,12 +955,391 @@ public class Dealership {
      * @return List of vehicles with matching type
      */
     public List<Vehicle> getVehiclesByType(String type) {
-        List<Vehicle> result = new ArrayList<>();
-        for (Vehicle vehicle : inventory) {
-            if (vehicle.getVehicleType().equalsIgnoreCase(type)) {
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("type", termKey(type)), () -> vehiclesAt(typeIndex.get(type)));
+        InventoryMetrics.GET_BY_TYPE.record(start);
+        return result;
+    }
+
+    /**
+     * Returns vehicles matching every criterion of a query. The planner reads candidates from
+     * the index of the most selective criterion and checks the remaining criteria in one pass.
+     * Without a sort order the search stops as soon as the limit is reached. With a sort
+     * order and a limit, the sort field's index is read in order until the limit is reached,
+     * without sorting the other matches.
+     *
+     * @param query Search criteria, sort order and limit
+     * @return List of matching vehicles
+     */
+    public List<Vehicle> search(VehicleQuery query) {
+        long start = InventoryMetrics.start();
+        List<Vehicle> result = cached(Arrays.asList("search", query), () -> runSearch(query));
+        InventoryMetrics.SEARCH.record(start);
+        return result;
+    }
+
+    private List<Vehicle> runSearch(VehicleQuery query) {
+        QueryPlanner.Plan plan = planner.plan(query, size);
+        if (query.getSort() != null && query.getLimit() > 0) {
+            // Top-k: no need to collect and sort every match
+            return firstInSortOrder(query, plan, null, -1, query.getLimit());
+        }
+        int stopAt = query.getSort() == null && query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        boolean parallel = runsInParallel(Math.min(plan.estimate, stopAt));
+
+        List<Vehicle> result;
+        if (parallel) {
+            // Walking the candidate set by segment avoids sorting a range index's slots
+            result = filterInParallel(planner.candidateSet(plan, query), query::matches, plan.estimate, stopAt);
+        } else {
+            int[] candidates = planner.candidates(plan, query);
+            result = new ArrayList<>(Math.min(stopAt, candidates == null ? size : candidates.length));
+            if (candidates == null) {
+                for (Vehicle vehicle : inventory) {
+                    if (vehicle != null && query.matches(vehicle)) {
+                        result.add(vehicle);
+                        if (result.size() == stopAt) {
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int slot : candidates) {
+                    Vehicle vehicle = inventory.get(slot);
+                    if (query.matches(vehicle)) {
+                        result.add(vehicle);
+                        if (result.size() == stopAt) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (query.getSort() != null) {
+            if (parallel) {
+                // Arrays.parallelSort is stable, like List.sort
+                Vehicle[] sorted = result.toArray(new Vehicle[0]);
+                Arrays.parallelSort(sorted, query.getSort().comparator());
+                result = new ArrayList<>(Arrays.asList(sorted));
+            } else {
+                result.sort(query.getSort().comparator());
+            }
+            if (query.getLimit() > 0 && result.size() > query.getLimit()) {
+                result = new ArrayList<>(result.subList(0, query.getLimit()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns one page of the vehicles matching a query, in the order {@link #search(VehicleQuery)}
+     * would list them. Only the vehicles on the page are collected: unsorted results are read
+     * in inventory order from where the previous page stopped, and sorted results keep the
+     * next pageSize vehicles after the previous page in a bounded heap. Vehicles added or
+     * removed between pages are seen or skipped as if the search had been run at that point.
+     *
+     * @param query        Search criteria, sort order and limit
+     * @param continuation Token from the previous page, or null for the first page
+     * @param pageSize     Maximum number of vehicles on the page
+     * @return The page with a token for the next one
+     * @throws IllegalArgumentException if the page size is not positive or the token is malformed
+     */
+    public VehiclePage page(VehicleQuery query, String continuation, int pageSize) {
+        long start = InventoryMetrics.start();
+        VehiclePage result;
+        QueryCache cache = queryCache;
+        if (cache == null) {
+            result = readPage(query, continuation, pageSize);
+        } else {
+            Object key = Arrays.asList("page", query, continuation, pageSize);
+            result = (VehiclePage) cache.get(key, version);
+            if (result == null) {
+                result = readPage(query, continuation, pageSize);
+                cache.put(key, version, result, result.getVehicles().size());
+            }
+        }
+        InventoryMetrics.PAGE.record(start);
+        return result;
+    }
+
+    /**
+     * Counts the vehicles matching a query, up to its limit, without collecting them. The
+     * query's candidates are read from the same index {@link #page(VehicleQuery, String, int)}
+     * would use.
+     *
+     * @param query Search criteria and limit; the sort order does not change the count
+     * @return Number of vehicles {@link #search(VehicleQuery)} would return
+     */
+    public int count(VehicleQuery query) {
+        QueryPlanner.Plan plan = planner.plan(query, size);
+        BitSet candidates = planner.candidateSet(plan, query);
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        int count = 0;
+        for (int slot = nextCandidate(candidates, 0); slot >= 0 && count < limit; slot = nextCandidate(candidates, slot + 1)) {
+            Vehicle vehicle = inventory.get(slot);
+            if (vehicle != null && query.matches(vehicle)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private VehiclePage readPage(VehicleQuery query, String continuation, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        PageToken after = continuation == null ? null : PageToken.parse(continuation);
+        int returned = after == null ? 0 : after.returned;
+        int wanted = query.getLimit() > 0 ? Math.min(pageSize, query.getLimit() - returned) : pageSize;
+        if (wanted <= 0) {
+            return new VehiclePage(new ArrayList<>(), null);
+        }
+        int afterSlot = after == null ? -1 : resumeSlot(after);
+
+        QueryPlanner.Plan plan = planner.plan(query, size);
+        // One vehicle past the page tells whether another page follows
+        List<Vehicle> vehicles = query.getSort() == null
+                ? nextInSlotOrder(query, planner.candidateSet(plan, query), afterSlot + 1, wanted + 1)
+                : firstInSortOrder(query, plan, after, afterSlot, wanted + 1);
+        if (vehicles.size() <= wanted) {
+            return new VehiclePage(vehicles, null);
+        }
+        vehicles.remove(wanted);
+        if (query.getLimit() > 0 && returned + wanted >= query.getLimit()) {
+            return new VehiclePage(vehicles, null);
+        }
+        Vehicle last = vehicles.get(wanted - 1);
+        double key = query.getSort() == null ? 0 : query.getSort().key(last);
+        return new VehiclePage(vehicles, new PageToken(layoutVersion, last.slot, last.sequence, returned + wanted, key).toString());
+    }
+
+    // Finds the current slot of the last vehicle a token saw, or the slot just before it if it was removed
+    private int resumeSlot(PageToken token) {
+        if (token.layout == layoutVersion) {
+            return token.slot;
+        }
+        // Compaction keeps vehicles in sequence order, so resume before the first vehicle added after it
+        int low = 0;
+        int high = inventory.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int live = mid;
+            while (live < high && inventory.get(live) == null) {
+                live++;
+            }
+            if (live == high || inventory.get(live).sequence > token.sequence) {
+                high = mid;
+            } else {
+                low = live + 1;
+            }
+        }
+        return low - 1;
+    }
+
+    private List<Vehicle> nextInSlotOrder(VehicleQuery query, BitSet candidates, int from, int count) {
+        List<Vehicle> result = new ArrayList<>(count);
+        for (int slot = nextCandidate(candidates, from); slot >= 0; slot = nextCandidate(candidates, slot + 1)) {
+            Vehicle vehicle = inventory.get(slot);
+            if (vehicle != null && query.matches(vehicle)) {
                 result.add(vehicle);
+                if (result.size() == count) {
+                    break;
+                }
             }
         }
         return result;
     }
+
+    /**
+     * Finds the first matches in sort order after a position. The sort field's index is read
+     * in order, which stops as soon as enough matches are found; if that visits more slots
+     * than the query has candidates, because few vehicles in sort order match, the
+     * candidates are run through a bounded heap instead.
+     *
+     * @param query     Query with a sort order
+     * @param plan      The query's plan
+     * @param after     Position to start after, or null to start at the beginning
+     * @param afterSlot Current slot of the vehicle at that position
+     * @param count     Number of matches wanted
+     * @return Up to count matches in sort order
+     */
+    private List<Vehicle> firstInSortOrder(VehicleQuery query, QueryPlanner.Plan plan, PageToken after, int afterSlot,
+                                           int count) {
+        int budget = plan.accessPath == QueryPlanner.AccessPath.FULL_SCAN ? inventory.size() : plan.estimate;
+        SortedWalk walk = new SortedWalk(query, after, afterSlot, count, Math.max(budget, count));
+        VehicleSort sort = query.getSort();
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                if (query.hasPriceRange() && (Double.isNaN(query.getMinPrice()) || Double.isNaN(query.getMaxPrice()))) {
+                    return new ArrayList<>();
+                }
+                Double minPrice = query.hasPriceRange() ? priceKey(query.getMinPrice()) : null;
+                Double maxPrice = query.hasPriceRange() ? priceKey(query.getMaxPrice()) : null;
+                if (after != null && sort.isDescending()) {
+                    maxPrice = maxPrice == null ? after.key : Math.min(maxPrice, after.key);
+                } else if (after != null) {
+                    minPrice = minPrice == null ? after.key : Math.max(minPrice, after.key);
+                }
+                priceIndex.walk(minPrice, maxPrice, sort.isDescending(), walk);
+                break;
+            case YEAR_ASC:
+            case YEAR_DESC:
+                walkInts(yearIndex, query.hasYearRange() ? query.getMinYear() : null,
+                        query.hasYearRange() ? query.getMaxYear() : null, sort, after, walk);
+                break;
+            default:
+                walkInts(odometerIndex, query.hasMileageRange() ? query.getMinMileage() : null,
+                        query.hasMileageRange() ? query.getMaxMileage() : null, sort, after, walk);
+                break;
+        }
+        if (!walk.overBudget) {
+            return walk.found;
+        }
+        return nextInSortOrder(query, planner.candidateSet(plan, query), after, afterSlot, count);
+    }
+
+    // Bounds are null when the query has no range on the sort field
+    private static void walkInts(RangeIndex<Integer> index, Integer low, Integer high, VehicleSort sort, PageToken after,
+                                 SortedWalk walk) {
+        if (after != null && sort.isDescending()) {
+            high = high == null ? (int) after.key : Math.min(high, (int) after.key);
+        } else if (after != null) {
+            low = low == null ? (int) after.key : Math.max(low, (int) after.key);
+        }
+        index.walk(low, high, sort.isDescending(), walk);
+    }
+
+    // Collects matches from a walk over the sort field's index until it has enough or runs out of budget
+    private final class SortedWalk implements RangeIndex.SlotVisitor<Number> {
+        private final VehicleQuery query;
+        private final PageToken after;
+        private final int afterSlot;
+        private final int count;
+        private int budget;
+        private final List<Vehicle> found = new ArrayList<>();
+        private boolean overBudget;
+
+        SortedWalk(VehicleQuery query, PageToken after, int afterSlot, int count, int budget) {
+            this.query = query;
+            this.after = after;
+            this.afterSlot = afterSlot;
+            this.count = count;
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean visit(Number key, int slot) {
+            if (--budget < 0) {
+                overBudget = true;
+                return false;
+            }
+            // Vehicles sharing the previous page's last key were listed up to its slot
+            if (after != null && key.doubleValue() == after.key && slot <= afterSlot) {
+                return true;
+            }
+            Vehicle vehicle = inventory.get(slot);
+            if (query.matches(vehicle)) {
+                found.add(vehicle);
+            }
+            return found.size() < count;
+        }
+    }
+
+    private List<Vehicle> nextInSortOrder(VehicleQuery query, BitSet candidates, PageToken after, int afterSlot, int count) {
+        VehicleSort sort = query.getSort();
+        Comparator<Vehicle> order = sort.comparator().thenComparingInt(vehicle -> vehicle.slot);
+        // The head is the vehicle that drops out first when a better one turns up
+        PriorityQueue<Vehicle> heap = new PriorityQueue<>(count + 1, order.reversed());
+        for (int slot = nextCandidate(candidates, 0); slot >= 0; slot = nextCandidate(candidates, slot + 1)) {
+            Vehicle vehicle = inventory.get(slot);
+            if (vehicle == null || !query.matches(vehicle)) {
+                continue;
+            }
+            if (after != null) {
+                int compared = sort.compareKeys(sort.key(vehicle), after.key);
+                if (compared < 0 || compared == 0 && slot <= afterSlot) {
+                    continue;
+                }
+            }
+            if (heap.size() < count) {
+                heap.add(vehicle);
+            } else if (order.compare(vehicle, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(vehicle);
+            }
+        }
+        List<Vehicle> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    private int nextCandidate(BitSet candidates, int from) {
+        if (candidates == null) {
+            return from < inventory.size() ? from : -1;
+        }
+        return candidates.nextSetBit(from);
+    }
+
+    /**
+     * Iterates over the vehicles matching a query, reading one page at a time with
+     * {@link #page(VehicleQuery, String, int)}, so memory use depends on the page size and
+     * not on the number of matches
+     *
+     * @param query    Search criteria, sort order and limit
+     * @param pageSize Number of vehicles read at a time
+     * @return Iterator over the matching vehicles
+     */
+    public Iterator<Vehicle> cursor(VehicleQuery query, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        return new PageCursor(query, pageSize);
+    }
+
+    /**
+     * Streams the vehicles matching a query, reading them a page at a time as the stream is
+     * consumed. Nothing is read until a terminal operation starts.
+     *
+     * @param query Search criteria, sort order and limit
+     * @return Sequential stream of the matching vehicles
+     */
+    public Stream<Vehicle> stream(VehicleQuery query) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor(query, STREAM_PAGE_SIZE),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Reads the next page only once the current one has been used up
+    private final class PageCursor implements Iterator<Vehicle> {
+        private final VehicleQuery query;
+        private final int pageSize;
+        private Iterator<Vehicle> current = Collections.emptyIterator();
+        private String continuation;
+        private boolean started;
+
+        PageCursor(VehicleQuery query, int pageSize) {
+            this.query = query;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && (!started || continuation != null)) {
+                VehiclePage page = page(query, continuation, pageSize);
+                started = true;
+                continuation = page.getContinuation();
+                current = page.getVehicles().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Vehicle next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
 }
@@ -1,20 +1,106 @@
 package com.dealership;
 
+import com.dealership.data.DealershipFileManager;
+import com.dealership.data.InventoryImporter;
+import com.dealership.metrics.InventoryMetrics;
+import com.dealership.model.Dealership;
 import com.dealership.ui.UserInterface;
+import com.dealership.web.InventoryHttpServer;
+
+import java.io.IOException;
 
 /**
  * Main class for the dealership application
  */
 public class Program {
+    private static final int DEFAULT_HTTP_PORT = 8080;
+
     /**
      * Entry point for the application
      *
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments: {@code --http [port]} serves the inventory API
+     *             instead of showing the menu, and {@code --import <feed>} imports a dealer
+     *             feed into the inventory and exits. Metrics are recorded unless the system
+     *             property {@code dealership.metrics} is {@code false}.
      */
     public static void main(String[] args) {
+        InventoryMetrics.setEnabled(!"false".equals(System.getProperty("dealership.metrics")));
+        InventoryMetrics.registerMBean();
+
+        if (args.length > 0 && args[0].equals("--http")) {
+            int port = DEFAULT_HTTP_PORT;
+            if (args.length > 1) {
+                try {
+                    port = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid port: " + args[1]);
+                    System.exit(1);
+                }
+            }
+            serveHttp(port);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--import")) {
+            if (args.length < 2) {
+                System.out.println("Usage: --import <feed file>");
+                System.exit(1);
+            }
+            importFeed(args[1]);
+            return;
+        }
+
         System.out.println("Starting Dealership Management System...");
 
         UserInterface ui = new UserInterface();
         ui.display();
     }
+
+    /**
+     * Imports a dealer feed into the inventory file and prints the import report
+     *
+     * @param feedPath Feed file
+     */
+    private static void importFeed(String feedPath) {
+        DealershipFileManager fileManager = new DealershipFileManager();
+        Dealership dealership = fileManager.getDealership();
+        if (dealership == null) {
+            System.out.println("Error: Could not load dealership data.");
+            System.exit(1);
+        }
+
+        try {
+            System.out.println(new InventoryImporter(dealership, fileManager).importFeed(feedPath));
+        } catch (IOException e) {
+            System.out.println("Error: Could not import the feed: " + e.getMessage());
+            System.exit(1);
+        }
+        fileManager.flush();
+    }
+
+    /**
+     * Loads the inventory for concurrent use and serves it over HTTP until the JVM exits
+     *
+     * @param port Port to listen on
+     */
+    private static void serveHttp(int port) {
+        DealershipFileManager fileManager = new DealershipFileManager();
+        fileManager.setConcurrentAccess(true);
+        Dealership dealership = fileManager.getDealership();
+        if (dealership == null) {
+            System.out.println("Error: Could not load dealership data.");
+            System.exit(1);
+        }
+
+        InventoryHttpServer server = new InventoryHttpServer(dealership, fileManager);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.out.println("Error: Could not start the HTTP server: " + e.getMessage());
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "inventory-http-shutdown"));
+        System.out.println("Serving " + dealership.getName() + " inventory on http://localhost:"
+                + server.getPort() + "/vehicles");
+    }
 }
@@ -1,19 +1,32 @@
 package com.dealership.ui;
 
 import com.dealership.data.DealershipFileManager;
+import com.dealership.data.InventoryImporter;
+import com.dealership.data.InventoryWatcher;
+import com.dealership.metrics.InventoryMetrics;
 import com.dealership.model.Dealership;
 import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+import com.dealership.model.VehiclePage;
+import com.dealership.model.VehicleQuery;
+import com.dealership.model.VehicleSort;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
  * Handles user interaction for the dealership application
  */
 public class UserInterface {
+    // Typed instead of a menu number; not listed in the menu
+    private static final String STATS_COMMAND = "stats";
+    // Vehicles printed before asking whether to show more
+    private static final int PAGE_SIZE = 20;
+
     private Dealership dealership;
     private Scanner scanner;
     private DealershipFileManager fileManager;
+    private InventoryWatcher watcher;
 
     /**
      * Constructor for the UserInterface class
@@ -24,7 +37,9 @@ public class UserInterface {
     }
 
     /**
-     * Initializes the dealership by loading data from the file
+     * Initializes the dealership by loading data from the file, and starts reloading it
+     * whenever another program changes the file, unless the system property
+     * {@code dealership.watch} is {@code false}
      */
     private void init() {
         dealership = fileManager.getDealership();
@@ -32,6 +47,26 @@ public class UserInterface {
             System.out.println("Error: Could not load dealership data.");
             System.exit(1);
         }
+
+        watcher = new InventoryWatcher(fileManager, dealership);
+        if (!"false".equals(System.getProperty("dealership.watch"))) {
+            try {
+                watcher.start();
+            } catch (IOException e) {
+                System.err.println("Error watching the dealership file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Switches to the inventory the watcher loaded last, telling the user when the file was reloaded
+     */
+    private void refreshDealership() {
+        Dealership current = watcher.getDealership();
+        if (current != dealership) {
+            dealership = current;
+            System.out.println("\nThe inventory file was changed and has been reloaded.");
+        }
     }
 
     /**
@@ -42,43 +77,18 @@ public class UserInterface {
 
         int choice = 0;
         while (choice != 99) {
+            refreshDealership();
             displayMenu();
             try {
-                choice = Integer.parseInt(scanner.nextLine().trim());
-
-                switch (choice) {
-                    case 1:
-                        processGetByPriceRequest();
-                        break;
-                    case 2:
-                        processGetByMakeModelRequest();
-                        break;
-                    case 3:
-                        processGetByYearRequest();
-                        break;
-                    case 4:
-                        processGetByColorRequest();
-                        break;
-                    case 5:
-                        processGetByMileageRequest();
-                        break;
-                    case 6:
-                        processGetByVehicleTypeRequest();
-                        break;
-                    case 7:
-                        processAllVehiclesRequest();
-                        break;
-                    case 8:
-                        processAddVehicleRequest();
-                        break;
-                    case 9:
-                        processRemoveVehicleRequest();
-                        break;
-                    case 99:
-                        System.out.println("Thank you for using the Dealership Application. Goodbye!");
-                        break;
-                    default:
-                        System.out.println("Invalid option. Please try again.");
+                String input = scanner.nextLine().trim();
+                // The file may have been reloaded while the menu waited for input
+                refreshDealership();
+                if (input.equalsIgnoreCase(STATS_COMMAND)) {
+                    processStatsRequest();
+                    choice = 0;
+                } else {
+                    choice = Integer.parseInt(input);
+                    processChoice(choice);
                 }
             } catch (NumberFormatException e) {
                 System.out.println("Please enter a valid number.");
@@ -92,6 +102,56 @@ public class UserInterface {
         }
     }
 
+    /**
+     * Runs the menu option with the given number
+     *
+     * @param choice Number the user entered
+     */
+    private void processChoice(int choice) {
+        switch (choice) {
+            case 1:
+                processGetByPriceRequest();
+                break;
+            case 2:
+                processGetByMakeModelRequest();
+                break;
+            case 3:
+                processGetByYearRequest();
+                break;
+            case 4:
+                processGetByColorRequest();
+                break;
+            case 5:
+                processGetByMileageRequest();
+                break;
+            case 6:
+                processGetByVehicleTypeRequest();
+                break;
+            case 7:
+                processAllVehiclesRequest();
+                break;
+            case 8:
+                processAddVehicleRequest();
+                break;
+            case 9:
+                processRemoveVehicleRequest();
+                break;
+            case 10:
+                processAdvancedSearchRequest();
+                break;
+            case 11:
+                processImportRequest();
+                break;
+            case 99:
+                // Let queued saves reach the file before the program exits
+                fileManager.flush();
+                System.out.println("Thank you for using the Dealership Application. Goodbye!");
+                break;
+            default:
+                System.out.println("Invalid option. Please try again.");
+        }
+    }
+
     /**
      * Displays the main menu options
      */
@@ -107,26 +167,51 @@ public class UserInterface {
         System.out.println("7 - List ALL vehicles");
         System.out.println("8 - Add a vehicle");
         System.out.println("9 - Remove a vehicle");
+        System.out.println("10 - Advanced search (combine filters)");
+        System.out.println("11 - Import vehicles from a feed file");
         System.out.println("99 - Quit");
         System.out.print("\nEnter your choice: ");
     }
 
     /**
-     * Displays a list of vehicles
+     * Displays the vehicles matching a query a page at a time, so a large result is never
+     * held in memory at once
      *
-     * @param vehicles List of vehicles to display
+     * @param query Query whose matches to display
      */
-    private void displayVehicles(List<Vehicle> vehicles) {
-        if (vehicles.isEmpty()) {
+    private void displayVehicles(VehicleQuery query) {
+        VehiclePage page = dealership.page(query, null, PAGE_SIZE);
+        if (page.getVehicles().isEmpty()) {
             System.out.println("No vehicles found matching the criteria.");
             return;
         }
 
-        System.out.println("\nVehicles Found: " + vehicles.size());
+        // A single page already holds every match; otherwise count without collecting them
+        int found = page.hasMore() ? dealership.count(query) : page.getVehicles().size();
+        System.out.println("\nVehicles Found: " + found);
         System.out.println("------------------------------------------");
-        for (Vehicle vehicle : vehicles) {
-            System.out.println(vehicle.toString());
+        String lineSeparator = System.lineSeparator();
+        VehicleFormatter formatter = new VehicleFormatter();
+        int shown = 0;
+        while (true) {
+            for (Vehicle vehicle : page.getVehicles()) {
+                formatter.appendDisplay(vehicle).append(lineSeparator);
+            }
+            System.out.print(formatter);
+            System.out.flush();
+            formatter.clear();
+            shown += page.getVehicles().size();
+
+            if (!page.hasMore()) {
+                break;
+            }
+            System.out.print("Shown " + shown + ". Press Enter for more, or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            page = dealership.page(query, page.getContinuation(), PAGE_SIZE);
         }
+        System.out.println("Vehicles shown: " + shown);
     }
 
     /**
@@ -134,7 +219,7 @@ public class UserInterface {
      */
     private void processAllVehiclesRequest() {
         System.out.println("\nAll Vehicles in Inventory:");
-        displayVehicles(dealership.getAllVehicles());
+        displayVehicles(VehicleQuery.builder().build());
     }
 
     /**
@@ -156,8 +241,7 @@ public class UserInterface {
                 return;
             }
 
-            List<Vehicle> vehicles = dealership.getVehiclesByPrice(min, max);
-            displayVehicles(vehicles);
+            displayVehicles(VehicleQuery.builder().priceRange(min, max).build());
         } catch (NumberFormatException e) {
             System.out.println("Invalid input. Please enter valid numbers.");
         }
@@ -175,8 +259,7 @@ public class UserInterface {
         System.out.print("Enter model (or leave blank for any model): ");
         String model = scanner.nextLine().trim();
 
-        List<Vehicle> vehicles = dealership.getVehiclesByMakeModel(make, model);
-        displayVehicles(vehicles);
+        displayVehicles(VehicleQuery.builder().make(make).model(model).build());
     }
 
     /**
@@ -198,8 +281,7 @@ public class UserInterface {
                 return;
             }
 
-            List<Vehicle> vehicles = dealership.getVehiclesByYear(min, max);
-            displayVehicles(vehicles);
+            displayVehicles(VehicleQuery.builder().yearRange(min, max).build());
         } catch (NumberFormatException e) {
             System.out.println("Invalid input. Please enter valid years.");
         }
@@ -219,8 +301,7 @@ public class UserInterface {
             return;
         }
 
-        List<Vehicle> vehicles = dealership.getVehiclesByColor(color);
-        displayVehicles(vehicles);
+        displayVehicles(VehicleQuery.builder().color(color).build());
     }
 
     /**
@@ -242,8 +323,7 @@ public class UserInterface {
                 return;
             }
 
-            List<Vehicle> vehicles = dealership.getVehiclesByMileage(min, max);
-            displayVehicles(vehicles);
+            displayVehicles(VehicleQuery.builder().mileageRange(min, max).build());
         } catch (NumberFormatException e) {
             System.out.println("Invalid input. Please enter valid mileage values.");
         }
@@ -264,8 +344,123 @@ public class UserInterface {
             return;
         }
 
-        List<Vehicle> vehicles = dealership.getVehiclesByType(type);
-        displayVehicles(vehicles);
+        displayVehicles(VehicleQuery.builder().vehicleType(type).build());
+    }
+
+    /**
+     * Processes the request to search with several filters at once
+     */
+    private void processAdvancedSearchRequest() {
+        System.out.println("\nAdvanced Search (leave any field blank to skip it):");
+
+        try {
+            VehicleQuery.Builder query = VehicleQuery.builder();
+
+            System.out.print("Enter minimum price: $");
+            Double minPrice = readOptionalDouble();
+            System.out.print("Enter maximum price: $");
+            Double maxPrice = readOptionalDouble();
+            if (minPrice != null || maxPrice != null) {
+                double min = minPrice == null ? 0 : minPrice;
+                double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+                if (min < 0 || min > max) {
+                    System.out.println("Invalid price range. Please try again.");
+                    return;
+                }
+                query.priceRange(min, max);
+            }
+
+            System.out.print("Enter minimum year: ");
+            Integer minYear = readOptionalInt();
+            System.out.print("Enter maximum year: ");
+            Integer maxYear = readOptionalInt();
+            if (minYear != null || maxYear != null) {
+                int min = minYear == null ? 1900 : minYear;
+                int max = maxYear == null ? Integer.MAX_VALUE : maxYear;
+                if (min < 1900 || min > max) {
+                    System.out.println("Invalid year range. Please try again.");
+                    return;
+                }
+                query.yearRange(min, max);
+            }
+
+            System.out.print("Enter minimum mileage: ");
+            Integer minMileage = readOptionalInt();
+            System.out.print("Enter maximum mileage: ");
+            Integer maxMileage = readOptionalInt();
+            if (minMileage != null || maxMileage != null) {
+                int min = minMileage == null ? 0 : minMileage;
+                int max = maxMileage == null ? Integer.MAX_VALUE : maxMileage;
+                if (min < 0 || min > max) {
+                    System.out.println("Invalid mileage range. Please try again.");
+                    return;
+                }
+                query.mileageRange(min, max);
+            }
+
+            System.out.print("Enter make: ");
+            query.make(scanner.nextLine());
+            System.out.print("Enter model: ");
+            query.model(scanner.nextLine());
+            System.out.print("Enter color: ");
+            query.color(scanner.nextLine());
+            System.out.print("Enter vehicle type (car, truck, SUV, van): ");
+            query.vehicleType(scanner.nextLine());
+
+            VehicleSort[] sorts = VehicleSort.values();
+            System.out.println("Sort by:");
+            for (int i = 0; i < sorts.length; i++) {
+                System.out.println("  " + (i + 1) + " - " + sorts[i].getDescription());
+            }
+            System.out.print("Enter sort option: ");
+            Integer sort = readOptionalInt();
+            if (sort != null) {
+                if (sort < 1 || sort > sorts.length) {
+                    System.out.println("Invalid sort option. Please try again.");
+                    return;
+                }
+                query.sortBy(sorts[sort - 1]);
+            }
+
+            System.out.print("Enter maximum number of results: ");
+            Integer limit = readOptionalInt();
+            if (limit != null) {
+                if (limit < 1) {
+                    System.out.println("Invalid number of results. Please try again.");
+                    return;
+                }
+                query.limit(limit);
+            }
+
+            displayVehicles(query.build());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input. Please enter valid numbers.");
+        }
+    }
+
+    /**
+     * Reads an optional whole number, returning null for a blank line
+     */
+    private Integer readOptionalInt() {
+        String line = scanner.nextLine().trim();
+        return line.isEmpty() ? null : Integer.parseInt(line);
+    }
+
+    /**
+     * Reads an optional decimal number, returning null for a blank line
+     */
+    private Double readOptionalDouble() {
+        String line = scanner.nextLine().trim();
+        return line.isEmpty() ? null : Double.parseDouble(line);
+    }
+
+    /**
+     * Processes the hidden request to show timings of searches, edits, loads and saves
+     */
+    private void processStatsRequest() {
+        System.out.println("\nInventory Statistics:");
+        System.out.print(InventoryMetrics.report());
+        System.out.println(dealership.getQueryCacheStats());
     }
 
     /**
@@ -279,11 +474,9 @@ public class UserInterface {
             int vin = Integer.parseInt(scanner.nextLine().trim());
 
             // Check if VIN already exists
-            for (Vehicle v : dealership.getAllVehicles()) {
-                if (v.getVin() == vin) {
-                    System.out.println("Error: Vehicle with this VIN already exists.");
-                    return;
-                }
+            if (dealership.containsVin(vin)) {
+                System.out.println("Error: Vehicle with this VIN already exists.");
+                return;
             }
 
             System.out.print("Enter year: ");
@@ -307,19 +500,26 @@ public class UserInterface {
             System.out.print("Enter price: $");
             double price = Double.parseDouble(scanner.nextLine().trim());
 
-            // Validate inputs
-            if (year < 1900 || odometer < 0 || price < 0 ||
-                    make.isEmpty() || model.isEmpty() || vehicleType.isEmpty() || color.isEmpty()) {
+            // Create, validate and add the vehicle
+            Vehicle vehicle = new Vehicle(vin, year, make, model, vehicleType, color, odometer, price);
+            if (!vehicle.isValid()) {
                 System.out.println("Error: Invalid input values. Vehicle not added.");
                 return;
             }
-
-            // Create and add the vehicle
-            Vehicle vehicle = new Vehicle(vin, year, make, model, vehicleType, color, odometer, price);
-            dealership.addVehicle(vehicle);
-
-            // Save the updated dealership to file
-            fileManager.saveDealership(dealership);
+            // The inventory may have been reloaded while the values were entered
+            boolean added = watcher.edit(current -> {
+                if (current.containsVin(vin)) {
+                    return false;
+                }
+                current.addVehicle(vehicle);
+                // Save the updated dealership to file in the background
+                fileManager.saveDealershipAsync(current);
+                return true;
+            });
+            if (!added) {
+                System.out.println("Error: Vehicle with this VIN already exists.");
+                return;
+            }
 
             System.out.println("Vehicle added successfully!");
         } catch (NumberFormatException e) {
@@ -327,6 +527,27 @@ public class UserInterface {
         }
     }
 
+    /**
+     * Processes the request to import the vehicles of a dealer feed file
+     */
+    private void processImportRequest() {
+        System.out.print("\nEnter the feed file path: ");
+        String feedPath = scanner.nextLine().trim();
+        if (feedPath.isEmpty()) {
+            System.out.println("Error: No file given. Nothing imported.");
+            return;
+        }
+
+        String result = watcher.edit(current -> {
+            try {
+                return new InventoryImporter(current, fileManager).importFeed(feedPath).toString();
+            } catch (IOException e) {
+                return "Error: Could not import the feed: " + e.getMessage();
+            }
+        });
+        System.out.println(result);
+    }
+
     /**
      * Processes the request to remove a vehicle
      */
@@ -337,10 +558,15 @@ public class UserInterface {
             System.out.print("Enter the VIN of the vehicle to remove: ");
             int vin = Integer.parseInt(scanner.nextLine().trim());
 
-            Vehicle removedVehicle = dealership.removeVehicle(vin);
+            Vehicle removedVehicle = watcher.edit(current -> {
+                Vehicle removed = current.removeVehicle(vin);
+                if (removed != null) {
+                    // Save the updated dealership to file in the background
+                    fileManager.saveDealershipAsync(current);
+                }
+                return removed;
+            });
             if (removedVehicle != null) {
-                // Save the updated dealership to file
-                fileManager.saveDealership(dealership);
                 System.out.println("Vehicle removed successfully:");
                 System.out.println(removedVehicle.toString());
             } else {
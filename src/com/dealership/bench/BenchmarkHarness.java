@@ -0,0 +1,205 @@
+package com.dealership.bench;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runs benchmarks the way JMH does, without the dependency: a benchmark is called in a loop
+ * for timed warm-up iterations, then for timed measured iterations, and each row reports
+ * throughput with its spread across iterations, average latency, bytes allocated per call
+ * (the figure JMH's gc profiler prints as gc.alloc.rate.norm) and collections seen.
+ * <p>
+ * Results are consumed through a volatile field so the JIT cannot drop unused work.
+ */
+public final class BenchmarkHarness {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private boolean headerPrinted;
+
+    /**
+     * A benchmarked operation; whatever it returns is consumed
+     */
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Constructor for the BenchmarkHarness class
+     *
+     * @param warmupIterations   Iterations run before measuring
+     * @param measuredIterations Iterations measured
+     * @param iterationMillis    Length of each iteration; slow operations still run at least once
+     * @param filter             Regular expression a benchmark name must contain, or null to run all
+     */
+    public BenchmarkHarness(int warmupIterations, int measuredIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = filter == null ? null : Pattern.compile(filter);
+    }
+
+    /**
+     * @param name Benchmark name
+     * @return true if the filter selects the benchmark
+     */
+    public boolean selects(String name) {
+        return filter == null || filter.matcher(name).find();
+    }
+
+    /**
+     * Warms up, measures and prints one row, if the filter selects the benchmark
+     *
+     * @param name      Benchmark name
+     * @param size      Inventory size, printed as the benchmark's parameter
+     * @param operation Operation to call repeatedly
+     */
+    public void run(String name, int size, Operation operation) {
+        if (!selects(name)) {
+            return;
+        }
+        if (!headerPrinted) {
+            System.out.printf("%-26s %10s %14s %10s %14s %14s %10s %6s%n", "Benchmark", "vehicles",
+                    "ops/s", "error", "avg us/op", "alloc B/op", "MB/s", "GCs");
+            headerPrinted = true;
+        }
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(operation);
+            }
+            double[] throughput = new double[measuredIterations];
+            long ops = 0;
+            long nanos = 0;
+            long allocated = 0;
+            long collections = gcCount();
+            for (int i = 0; i < measuredIterations; i++) {
+                long[] result = iteration(operation);
+                ops += result[0];
+                nanos += result[1];
+                allocated += result[2];
+                throughput[i] = result[0] * 1e9 / result[1];
+            }
+            collections = gcCount() - collections;
+
+            double mean = ops * 1e9 / nanos;
+            System.out.printf("%-26s %10d %14.3f %10.3f %14.3f %14s %10s %6d%n", name, size, mean,
+                    error(throughput), nanos / 1e3 / ops,
+                    THREADS == null ? "n/a" : String.format("%.1f", (double) allocated / ops),
+                    THREADS == null ? "n/a" : String.format("%.1f", allocated / 1e6 / (nanos / 1e9)),
+                    collections);
+        } catch (Exception e) {
+            System.out.printf("%-26s %10d failed: %s%n", name, size, e);
+        }
+    }
+
+    // Returns {operations, elapsed nanos, bytes allocated}
+    private long[] iteration(Operation operation) throws Exception {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + iterationNanos;
+        long ops = 0;
+        long now;
+        do {
+            sink = operation.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long allocated = allocatedBytes() - allocatedBefore;
+        sink = null;
+        return new long[]{ops, now - start, allocated};
+    }
+
+    // Counts every live thread, so work handed to the fork-join pool or the background
+    // writer is included; threads that ended during the iteration are not
+    private static long allocatedBytes() {
+        if (THREADS == null) {
+            return 0;
+        }
+        long total = 0;
+        for (long allocated : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    // Half-width of the 99.9% confidence interval of the mean, as JMH reports it
+    private static double error(double[] samples) {
+        int n = samples.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= n;
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        variance /= n - 1;
+        return studentT999(n - 1) * Math.sqrt(variance / n);
+    }
+
+    // Two-sided 99.9% Student t quantiles, enough for the iteration counts used here
+    private static double studentT999(int degreesOfFreedom) {
+        double[] table = {636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+                4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850};
+        return degreesOfFreedom <= table.length ? table[degreesOfFreedom - 1] : 3.291;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the given class's main method in a fresh JVM per argument list, with this JVM's
+     * class path and options, so one benchmark's JIT profile and heap do not leak into the next
+     *
+     * @param mainClass Class to run
+     * @param forks     Argument lists, one JVM each
+     * @throws IOException          If a JVM cannot be started
+     * @throws InterruptedException If interrupted while waiting for a JVM
+     */
+    public static void fork(Class<?> mainClass, List<List<String>> forks)
+            throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + "/bin/java";
+        for (List<String> arguments : forks) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(mainClass.getName());
+            command.addAll(arguments);
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                System.out.println("Fork " + arguments + " exited with " + exit);
+            }
+        }
+    }
+}
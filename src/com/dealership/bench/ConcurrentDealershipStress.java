@@ -0,0 +1,231 @@
+package com.dealership.bench;
+
+import com.dealership.model.ConcurrentDealership;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stress check for {@link ConcurrentDealership}. Writer threads add, edit and remove their
+ * own vehicles while reader threads search, look up VINs and list the inventory. Readers
+ * check every answer against the fields writers never touch; at the end every writer's
+ * surviving vehicles must be present exactly once, and every index must agree with a full
+ * scan. Any exception, wrong answer or lost update makes the run fail.
+ * <p>
+ * Passing {@code plain} runs the same load against an unsynchronized {@link Dealership},
+ * which is expected to fail.
+ * <p>
+ * Usage: {@code java com.dealership.bench.ConcurrentDealershipStress [readers] [writers] [seconds] [plain]}
+ */
+public class ConcurrentDealershipStress {
+    private static final int SEED_VEHICLES = 50_000;
+    // Writer n adds VINs from FIRST_WRITER_VIN + n * VINS_PER_WRITER upwards
+    private static final int FIRST_WRITER_VIN = 100_000_000;
+    private static final int VINS_PER_WRITER = 10_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        boolean plain = args.length > 3 && args[3].equals("plain");
+
+        Dealership dealership = plain ? new Dealership("Stress", "Lot", "555")
+                : new ConcurrentDealership("Stress", "Lot", "555");
+        List<Vehicle> seed = new InventoryGenerator(13).generate(SEED_VEHICLES);
+        Set<Integer> seedVins = new HashSet<>();
+        for (Vehicle vehicle : seed) {
+            seedVins.add(vehicle.getVin());
+        }
+        dealership.addVehicles(seed);
+        List<Integer> seedVinList = new ArrayList<>(seedVins);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        List<Set<Integer>> writerVins = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int w = 0; w < writers; w++) {
+            Set<Integer> live = new HashSet<>();
+            writerVins.add(live);
+            int firstVin = FIRST_WRITER_VIN + w * VINS_PER_WRITER;
+            threads.add(worker("writer-" + w, start, failures, () -> {
+                Random random = new Random(firstVin);
+                List<Integer> owned = new ArrayList<>();
+                int nextVin = firstVin;
+                while (running.get()) {
+                    int op = random.nextInt(10);
+                    if (op < 5 || owned.isEmpty()) {
+                        Vehicle vehicle = new Vehicle(nextVin, 2000 + random.nextInt(25), "Stress", "Writer",
+                                "car", "White", random.nextInt(100_000), 10_000 + random.nextInt(20_000));
+                        dealership.addVehicle(vehicle);
+                        owned.add(nextVin);
+                        live.add(nextVin++);
+                    } else if (op < 8) {
+                        int vin = owned.remove(random.nextInt(owned.size()));
+                        if (dealership.removeVehicle(vin) == null) {
+                            failures.add("Lost add: VIN " + vin + " was not there to remove");
+                        }
+                        live.remove(vin);
+                    } else {
+                        int vin = owned.get(random.nextInt(owned.size()));
+                        int odometer = random.nextInt(200_000);
+                        if (!updateOdometer(dealership, vin, odometer)) {
+                            failures.add("Lost add: VIN " + vin + " was not there to update");
+                        }
+                    }
+                    writes.increment();
+                }
+            }));
+        }
+
+        for (int r = 0; r < readers; r++) {
+            int seedValue = r;
+            threads.add(worker("reader-" + r, start, failures, () -> {
+                Random random = new Random(seedValue);
+                while (running.get()) {
+                    switch (random.nextInt(4)) {
+                        case 0: {
+                            int minYear = 1995 + random.nextInt(25);
+                            VehicleQuery query = VehicleQuery.builder().yearRange(minYear, minYear + 3)
+                                    .priceRange(5_000, 25_000).build();
+                            for (Vehicle vehicle : dealership.search(query)) {
+                                if (vehicle.getYear() < minYear || vehicle.getYear() > minYear + 3
+                                        || vehicle.getPrice() < 5_000 || vehicle.getPrice() > 25_000) {
+                                    failures.add("Search returned a non-matching vehicle: " + vehicle);
+                                }
+                            }
+                            break;
+                        }
+                        case 1: {
+                            int vin = seedVinList.get(random.nextInt(seedVinList.size()));
+                            Vehicle vehicle = dealership.findByVin(vin);
+                            if (vehicle == null || vehicle.getVin() != vin) {
+                                failures.add("Lookup of untouched VIN " + vin + " returned " + vehicle);
+                            }
+                            break;
+                        }
+                        case 2: {
+                            List<Vehicle> all = dealership.getAllVehicles();
+                            if (all.size() < SEED_VEHICLES) {
+                                failures.add("Listing lost vehicles: " + all.size());
+                            }
+                            if (random.nextInt(100) == 0) {
+                                Map<Vehicle, Boolean> seen = new IdentityHashMap<>();
+                                for (Vehicle vehicle : all) {
+                                    if (vehicle == null || seen.put(vehicle, true) != null) {
+                                        failures.add("Listing holds a null or repeated vehicle");
+                                        break;
+                                    }
+                                }
+                            }
+                            break;
+                        }
+                        default:
+                            for (Vehicle vehicle : dealership.getVehiclesByType("van")) {
+                                if (!vehicle.getVehicleType().equalsIgnoreCase("van")) {
+                                    failures.add("Type lookup returned " + vehicle);
+                                }
+                            }
+                    }
+                    reads.increment();
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+
+        verifyFinalState(dealership, seedVins, writerVins, failures);
+        System.out.printf("%s: %d readers, %d writers, %.1f s: %,.0f reads/s, %,.0f writes/s%n",
+                dealership.getClass().getSimpleName(), readers, writers, elapsed,
+                reads.sum() / elapsed, writes.sum() / elapsed);
+        if (failures.isEmpty()) {
+            System.out.println("OK: no exceptions, wrong answers or lost updates");
+        } else {
+            System.out.println("FAILED: " + failures.size() + " problems, first: " + failures.peek());
+            System.exit(1);
+        }
+    }
+
+    private static boolean updateOdometer(Dealership dealership, int vin, int odometer) {
+        if (dealership instanceof ConcurrentDealership) {
+            return ((ConcurrentDealership) dealership).update(vin, vehicle -> vehicle.setOdometer(odometer)) != null;
+        }
+        Vehicle vehicle = dealership.findByVin(vin);
+        if (vehicle == null) {
+            return false;
+        }
+        vehicle.setOdometer(odometer);
+        return true;
+    }
+
+    private static Thread worker(String name, CountDownLatch start, ConcurrentLinkedQueue<String> failures,
+                                 Runnable body) {
+        return new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Throwable e) {
+                failures.add(name + " threw " + e);
+            }
+        }, name);
+    }
+
+    private static void verifyFinalState(Dealership dealership, Set<Integer> seedVins, List<Set<Integer>> writerVins,
+                                         ConcurrentLinkedQueue<String> failures) {
+        Set<Integer> expected = new HashSet<>(seedVins);
+        for (Set<Integer> live : writerVins) {
+            expected.addAll(live);
+        }
+        List<Vehicle> all = new ArrayList<>(dealership.getAllVehicles());
+        Set<Integer> actual = new HashSet<>();
+        for (Vehicle vehicle : all) {
+            if (!actual.add(vehicle.getVin())) {
+                failures.add("VIN " + vehicle.getVin() + " is in the inventory twice");
+            }
+        }
+        if (!actual.equals(expected) || dealership.size() != expected.size()) {
+            failures.add("Final inventory has " + actual.size() + " VINs and size " + dealership.size()
+                    + ", expected " + expected.size());
+        }
+        for (int vin : expected) {
+            if (!dealership.containsVin(vin)) {
+                failures.add("VIN index lost " + vin);
+                break;
+            }
+        }
+        int scanned = 0;
+        for (Vehicle vehicle : all) {
+            if (vehicle.getOdometer() >= 50_000 && vehicle.getOdometer() <= 60_000) {
+                scanned++;
+            }
+        }
+        if (dealership.getVehiclesByMileage(50_000, 60_000).size() != scanned) {
+            failures.add("Odometer index disagrees with a full scan");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.dealership.bench;
+
+import com.dealership.data.DealershipFileManager;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+import com.dealership.model.VehicleSort;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark suite for Dealership queries and DealershipFileManager loads and saves, on
+ * synthetic inventories from {@link InventoryGenerator}. Each inventory size runs in its own
+ * JVM; see {@link BenchmarkHarness} for what is measured.
+ * <p>
+ * Usage: {@code java -Xmx4g com.dealership.bench.DealershipBenchmarks [options]}
+ * <ul>
+ *     <li>{@code --sizes 10000,100000,1000000} - inventory sizes, up to 10,000,000 with enough heap</li>
+ *     <li>{@code --filter regex} - only benchmarks whose name contains a match</li>
+ *     <li>{@code --warmup 3 --iterations 5 --time 1000} - iteration counts and milliseconds per iteration</li>
+ *     <li>{@code --parallel 100000} - run queries expected to return at least this many vehicles in parallel</li>
+ *     <li>{@code --no-fork} - run every size in this JVM</li>
+ * </ul>
+ */
+public class DealershipBenchmarks {
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        String filter = null;
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        boolean fork = true;
+        int parallelThreshold = 0;
+        List<String> passed = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(args[++i].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    continue;
+                case "--filter":
+                    filter = args[++i];
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--time":
+                    time = Long.parseLong(args[++i]);
+                    break;
+                case "--parallel":
+                    parallelThreshold = Integer.parseInt(args[++i]);
+                    break;
+                case "--no-fork":
+                    fork = false;
+                    continue;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+            passed.add(args[i - 1]);
+            passed.add(args[i]);
+        }
+
+        if (fork) {
+            List<List<String>> forks = new ArrayList<>();
+            for (int size : sizes) {
+                List<String> arguments = new ArrayList<>(passed);
+                arguments.addAll(Arrays.asList("--no-fork", "--sizes", String.valueOf(size)));
+                forks.add(arguments);
+            }
+            BenchmarkHarness.fork(DealershipBenchmarks.class, forks);
+            return;
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, time, filter);
+        for (int size : sizes) {
+            runAll(harness, size, parallelThreshold);
+        }
+    }
+
+    private static void runAll(BenchmarkHarness harness, int size, int parallelThreshold) throws IOException {
+        Dealership dealership = new Dealership("Benchmark Motors", "1 Synthetic Way", "555-0100");
+        // Every call below runs its query; the cached benchmarks turn the cache back on
+        dealership.setQueryCacheCapacity(0);
+        if (parallelThreshold > 0) {
+            dealership.setParallelQueries(true);
+            dealership.setParallelQueryThreshold(parallelThreshold);
+        }
+        List<Vehicle> vehicles = new InventoryGenerator(SEED).generate(size);
+        dealership.addVehicles(vehicles);
+        int firstVin = vehicles.get(0).getVin();
+        VehicleQuery combined = VehicleQuery.builder()
+                .vehicleType("SUV").priceRange(10000, 20000).mileageRange(0, 60000).build();
+
+        harness.run("getVehiclesByPrice", size, () -> dealership.getVehiclesByPrice(10000, 15000));
+        harness.run("getVehiclesByMakeModel", size, () -> dealership.getVehiclesByMakeModel("ford", "f-150"));
+        harness.run("getVehiclesByYear", size, () -> dealership.getVehiclesByYear(2015, 2018));
+        harness.run("getVehiclesByColor", size, () -> dealership.getVehiclesByColor("red"));
+        harness.run("getVehiclesByMileage", size, () -> dealership.getVehiclesByMileage(0, 30000));
+        harness.run("getVehiclesByType", size, () -> dealership.getVehiclesByType("van"));
+        harness.run("getAllVehicles", size, dealership::getAllVehicles);
+        harness.run("search", size, () -> dealership.search(combined));
+        harness.run("searchFirstPage", size, () -> dealership.page(combined, null, 20));
+        VehicleQuery cheapestTrucks = VehicleQuery.builder()
+                .vehicleType("truck").sortBy(VehicleSort.PRICE_ASC).limit(10).build();
+        VehicleQuery lowestMileage = VehicleQuery.builder()
+                .make("toyota").sortBy(VehicleSort.MILEAGE_ASC).limit(20).build();
+        harness.run("searchTop10CheapestTrucks", size, () -> dealership.search(cheapestTrucks));
+        harness.run("searchTop20LowestMileage", size, () -> dealership.search(lowestMileage));
+        harness.run("searchSortedFirstPage", size, () -> dealership.page(
+                VehicleQuery.builder().vehicleType("SUV").sortBy(VehicleSort.YEAR_DESC).build(), null, 20));
+
+        dealership.setQueryCacheCapacity(100_000);
+        harness.run("getVehiclesByMakeModelCached", size, () -> dealership.getVehiclesByMakeModel("ford", "f-150"));
+        harness.run("searchCached", size, () -> dealership.search(combined));
+        harness.run("searchFirstPageCached", size, () -> dealership.page(combined, null, 20));
+        dealership.setQueryCacheCapacity(0);
+
+        int[] next = {0};
+        harness.run("findByVin", size, () -> dealership.findByVin(firstVin + next[0]++ % size));
+        // Each call puts the vehicle back, so every call removes from a full inventory
+        harness.run("removeVehicle", size, () -> {
+            Vehicle removed = dealership.removeVehicle(firstVin + next[0]++ % size);
+            dealership.addVehicle(removed);
+            return removed;
+        });
+
+        File directory = Files.createTempDirectory("dealership-bench").toFile();
+        try {
+            String path = new File(directory, "inventory.csv").getPath();
+            new DealershipFileManager(path).saveDealership(dealership);
+
+            harness.run("loadDealership", size, () -> new DealershipFileManager(path).getDealership());
+            harness.run("loadDealershipParallel", size, () -> {
+                DealershipFileManager fileManager = new DealershipFileManager(path);
+                fileManager.setParallelLoading(true);
+                return fileManager.getDealership();
+            });
+            // A manager that did not load the Dealership rewrites the whole file
+            harness.run("saveDealershipFull", size, () -> {
+                new DealershipFileManager(path).saveDealership(dealership);
+                return dealership;
+            });
+
+            if (harness.selects("saveDealershipJournal")) {
+                // A manager that loaded the Dealership appends the edits to the journal
+                DealershipFileManager fileManager = new DealershipFileManager(path);
+                Dealership loaded = fileManager.getDealership();
+                harness.run("saveDealershipJournal", size, () -> {
+                    Vehicle removed = loaded.removeVehicle(firstVin + next[0]++ % size);
+                    loaded.addVehicle(removed);
+                    fileManager.saveDealership(loaded);
+                    return removed;
+                });
+                fileManager.flush();
+            }
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.dealership.bench;
+
+import com.dealership.model.Vehicle;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic inventories with a realistic spread of makes, models, colors and
+ * prices for benchmarking. The same seed always produces the same inventory.
+ */
+public class InventoryGenerator {
+    private static final String[][] MODELS = {
+            {"Ford", "F-150", "truck"}, {"Ford", "Explorer", "SUV"}, {"Ford", "Escape", "SUV"},
+            {"Ford", "Ranger", "truck"}, {"Ford", "Mustang", "car"}, {"Ford", "Transit", "van"},
+            {"Chevrolet", "Silverado", "truck"}, {"Chevrolet", "Equinox", "SUV"}, {"Chevrolet", "Malibu", "car"},
+            {"Chevrolet", "Tahoe", "SUV"}, {"Toyota", "Camry", "car"}, {"Toyota", "Corolla", "car"},
+            {"Toyota", "RAV4", "SUV"}, {"Toyota", "Tacoma", "truck"}, {"Toyota", "Sienna", "van"},
+            {"Honda", "Civic", "car"}, {"Honda", "Accord", "car"}, {"Honda", "CR-V", "SUV"},
+            {"Honda", "Odyssey", "van"}, {"Nissan", "Altima", "car"}, {"Nissan", "Rogue", "SUV"},
+            {"Nissan", "Frontier", "truck"}, {"Jeep", "Wrangler", "SUV"}, {"Jeep", "Grand Cherokee", "SUV"},
+            {"Ram", "1500", "truck"}, {"Hyundai", "Elantra", "car"}, {"Hyundai", "Tucson", "SUV"},
+            {"Kia", "Sorento", "SUV"}, {"Subaru", "Outback", "car"}, {"Dodge", "Grand Caravan", "van"}
+    };
+    // Popularity weights for MODELS, pickups and small SUVs dominate a typical lot
+    private static final int[] MODEL_WEIGHTS = {
+            60, 25, 20, 12, 10, 6, 50, 22, 12, 14, 35, 30, 38, 20, 8, 30, 22, 34, 8, 18, 28, 10, 18, 16, 40,
+            14, 16, 12, 14, 6
+    };
+    private static final String[] COLORS = {"White", "Black", "Gray", "Silver", "Red", "Blue", "Green", "Brown", "Yellow"};
+    private static final int[] COLOR_WEIGHTS = {25, 22, 18, 14, 9, 8, 2, 1, 1};
+
+    private final Random random;
+    private final int[] modelTable;
+    private final int[] colorTable;
+    private int nextVin = 10000;
+
+    /**
+     * Constructor for the InventoryGenerator class
+     *
+     * @param seed Seed for the random number generator
+     */
+    public InventoryGenerator(long seed) {
+        this.random = new Random(seed);
+        this.modelTable = weightedTable(MODEL_WEIGHTS);
+        this.colorTable = weightedTable(COLOR_WEIGHTS);
+    }
+
+    /**
+     * Creates the next vehicle. VINs are unique and increasing.
+     *
+     * @return A new vehicle
+     */
+    public Vehicle nextVehicle() {
+        String[] model = MODELS[modelTable[random.nextInt(modelTable.length)]];
+        String color = COLORS[colorTable[random.nextInt(colorTable.length)]];
+        int age = Math.min(30, (int) Math.abs(random.nextGaussian() * 6));
+        int year = 2024 - age;
+        int odometer = Math.max(0, (int) (age * 12000 + random.nextGaussian() * 8000));
+        // Round prices to whole dollars ending in 95, as on a real window sticker
+        int dollars = Math.max(500, (int) (38000 * Math.pow(0.85, age) + random.nextGaussian() * 3000));
+        double price = (dollars / 100) * 100 + 95;
+        return new Vehicle(nextVin++, year, model[0], model[1], model[2], color, odometer, price);
+    }
+
+    /**
+     * Creates a list of vehicles
+     *
+     * @param count Number of vehicles
+     * @return The generated vehicles
+     */
+    public List<Vehicle> generate(int count) {
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(nextVehicle());
+        }
+        return vehicles;
+    }
+
+    /**
+     * Writes an inventory file in the pipe-delimited format read by DealershipFileManager
+     *
+     * @param path  File to write
+     * @param count Number of vehicles
+     * @throws IOException If the file cannot be written
+     */
+    public void writeInventoryFile(String path, int count) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write("Benchmark Motors|1 Synthetic Way|555-0100");
+            writer.newLine();
+            for (int i = 0; i < count; i++) {
+                Vehicle vehicle = nextVehicle();
+                writer.write(String.format("%d|%d|%s|%s|%s|%s|%d|%.2f",
+                        vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                        vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int[] weightedTable(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int[] table = new int[total];
+        int pos = 0;
+        for (int i = 0; i < weights.length; i++) {
+            for (int j = 0; j < weights[i]; j++) {
+                table[pos++] = i;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,197 @@
+package com.dealership.bench;
+
+import com.dealership.data.CompressedInventoryFile;
+import com.dealership.data.DealershipFileManager;
+import com.dealership.data.InventoryParser;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the streaming {@link DealershipFileManager} loader and its memory-mapped parallel
+ * mode against the previous {@code readLine}/{@code split} loader on a generated inventory
+ * file, reporting load time and bytes allocated per row. Allocation is only counted on the
+ * calling thread, so it is not meaningful for the parallel loaders. The same inventory is
+ * also written as a {@link CompressedInventoryFile} to report its size against the text file,
+ * its load time, and the time to read a range of VINs from it.
+ * <p>
+ * Usage: {@code java com.dealership.bench.InventoryLoadComparison [vehicles]}
+ */
+public class InventoryLoadComparison {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File file = File.createTempFile("inventory", ".csv");
+        file.deleteOnExit();
+        new InventoryGenerator(42).writeInventoryFile(file.getPath(), count);
+        System.out.println("Vehicles: " + count + ", file size: " + file.length() + " bytes");
+
+        DealershipFileManager fileManager = new DealershipFileManager(file.getPath());
+        DealershipFileManager parallelFileManager = new DealershipFileManager(file.getPath());
+        parallelFileManager.setParallelLoading(true);
+        Dealership baseline = loadWithSplit(file.getPath());
+        if (!sameInventory(baseline, fileManager.getDealership())
+                || !sameInventory(baseline, parallelFileManager.getDealership())) {
+            throw new IllegalStateException("Loaders disagree on " + file);
+        }
+
+        File compressed = File.createTempFile("inventory", ".dlrz");
+        compressed.deleteOnExit();
+        CompressedInventoryFile.convertCsvToCompressed(file.getPath(), compressed.getPath());
+        DealershipFileManager compressedFileManager = new DealershipFileManager(compressed.getPath());
+        if (!sameInventory(baseline, compressedFileManager.getDealership())) {
+            throw new IllegalStateException("Compressed copy differs from " + file);
+        }
+        System.out.printf("Compressed file size: %d bytes (%.1fx smaller)%n", compressed.length(),
+                (double) file.length() / compressed.length());
+
+        System.out.println("Load into Dealership (parsing plus indexing):");
+        report("split loader", count, () -> loadWithSplit(file.getPath()));
+        report("streaming parser", count, fileManager::getDealership);
+        report("parallel mapped", count, parallelFileManager::getDealership);
+        report("compressed blocks", count, compressedFileManager::getDealership);
+        System.out.println("Read 1,000 VINs from the middle without loading the rest:");
+        int firstVin = baseline.getAllVehicles().get(count / 2).getVin();
+        report("compressed blocks", 1000, () -> readVinRange(compressed.getPath(), firstVin, firstVin + 999));
+        System.out.println("Parse only:");
+        report("split loader", count, () -> parseWithSplit(file.getPath()));
+        report("streaming parser", count, () -> parseWithParser(file.getPath()));
+    }
+
+    private static List<Vehicle> readVinRange(String path, int minVin, int maxVin) {
+        try (CompressedInventoryFile file = CompressedInventoryFile.open(path)) {
+            return file.findByVinRange(minVin, maxVin);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Integer parseWithSplit(String path) {
+        int rows = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            reader.readLine();
+            String vehicleLine;
+            while ((vehicleLine = reader.readLine()) != null) {
+                String[] vehicleData = vehicleLine.split("\\|");
+                if (vehicleData.length >= 8) {
+                    Integer.parseInt(vehicleData[0].trim());
+                    Integer.parseInt(vehicleData[1].trim());
+                    vehicleData[2].trim();
+                    vehicleData[3].trim();
+                    vehicleData[4].trim();
+                    vehicleData[5].trim();
+                    Integer.parseInt(vehicleData[6].trim());
+                    Double.parseDouble(vehicleData[7].trim());
+                    rows++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static Integer parseWithParser(String path) {
+        int[] rows = new int[1];
+        try (InputStream in = new FileInputStream(path)) {
+            new InventoryParser(Charset.defaultCharset(), true).parse(in, new InventoryParser.Handler() {
+                @Override
+                public boolean header(String line) {
+                    return true;
+                }
+
+                @Override
+                public void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                                    int odometer, double price) {
+                    rows[0]++;
+                }
+
+                @Override
+                public void rejected(NumberFormatException e) {
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+
+    private static void report(String name, int count, Supplier<?> loader) {
+        loader.get();
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            loader.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            allocated = allocatedBytes() - bytesBefore;
+        }
+        System.out.printf("  %-18s %9.1f ms %12.0f rows/s %9.1f bytes allocated/row%n", name,
+                bestNanos / 1e6, count / (bestNanos / 1e9), (double) allocated / count);
+    }
+
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean sameInventory(Dealership expected, Dealership actual) {
+        List<Vehicle> left = expected.getAllVehicles();
+        List<Vehicle> right = actual.getAllVehicles();
+        if (left.size() != right.size()) {
+            return false;
+        }
+        for (int i = 0; i < left.size(); i++) {
+            if (!left.get(i).toString().equals(right.get(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The loader DealershipFileManager used before the streaming parser, kept as the baseline
+    static Dealership loadWithSplit(String path) {
+        Dealership dealership = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String dealershipLine = reader.readLine();
+            if (dealershipLine != null) {
+                String[] dealershipData = dealershipLine.split("\\|");
+                if (dealershipData.length >= 3) {
+                    dealership = new Dealership(dealershipData[0].trim(), dealershipData[1].trim(),
+                            dealershipData[2].trim());
+                    String vehicleLine;
+                    while ((vehicleLine = reader.readLine()) != null) {
+                        try {
+                            String[] vehicleData = vehicleLine.split("\\|");
+                            if (vehicleData.length >= 8) {
+                                dealership.addVehicle(new Vehicle(
+                                        Integer.parseInt(vehicleData[0].trim()), Integer.parseInt(vehicleData[1].trim()),
+                                        vehicleData[2].trim(), vehicleData[3].trim(), vehicleData[4].trim(),
+                                        vehicleData[5].trim(), Integer.parseInt(vehicleData[6].trim()),
+                                        Double.parseDouble(vehicleData[7].trim())));
+                            }
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error parsing vehicle data: " + e.getMessage());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading dealership file: " + e.getMessage());
+        }
+        return dealership;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dealership.bench;
+
+import com.dealership.model.ColumnarInventoryStore;
+import com.dealership.model.Dealership;
+import com.dealership.model.InventoryStore;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares heap footprint and search throughput of the object-based {@link Dealership},
+ * the {@link ColumnarInventoryStore} and a plain scanned {@code ArrayList<Vehicle>}.
+ * <p>
+ * Usage: {@code java com.dealership.bench.InventoryStoreComparison [vehicles]}
+ */
+public class InventoryStoreComparison {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("Vehicles: " + count);
+
+        long before = usedHeap();
+        List<Vehicle> plain = new InventoryGenerator(42).generate(count);
+        long plainBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Dealership dealership = new Dealership("Benchmark Motors", "1 Synthetic Way", "555-0100");
+        for (Vehicle vehicle : new InventoryGenerator(42).generate(count)) {
+            dealership.addVehicle(vehicle);
+        }
+        long dealershipBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ColumnarInventoryStore columnar = new ColumnarInventoryStore(count);
+        InventoryGenerator generator = new InventoryGenerator(42);
+        for (int i = 0; i < count; i++) {
+            columnar.addVehicle(generator.nextVehicle());
+        }
+        long columnarBytes = usedHeap() - before;
+
+        System.out.printf("%-28s %10s%n", "Heap (bytes/vehicle)", "");
+        System.out.printf("  %-26s %10.1f%n", "ArrayList<Vehicle>", (double) plainBytes / count);
+        System.out.printf("  %-26s %10.1f%n", "Dealership (indexed)", (double) dealershipBytes / count);
+        System.out.printf("  %-26s %10.1f%n", "ColumnarInventoryStore", (double) columnarBytes / count);
+
+        VehicleQuery combined = VehicleQuery.builder()
+                .vehicleType("SUV").priceRange(10000, 20000).mileageRange(0, 60000).build();
+
+        System.out.printf("%n%-28s %12s %12s %12s%n", "Query (ms/op)", "ArrayList", "Dealership", "Columnar");
+        compare("price 10000-15000",
+                () -> scan(plain, v -> v.getPrice() >= 10000 && v.getPrice() <= 15000),
+                dealership, columnar, s -> s.getVehiclesByPrice(10000, 15000));
+        compare("make/model Ford F-150",
+                () -> scan(plain, v -> v.getMake().equalsIgnoreCase("ford") && v.getModel().equalsIgnoreCase("f-150")),
+                dealership, columnar, s -> s.getVehiclesByMakeModel("ford", "f-150"));
+        compare("year 2015-2018",
+                () -> scan(plain, v -> v.getYear() >= 2015 && v.getYear() <= 2018),
+                dealership, columnar, s -> s.getVehiclesByYear(2015, 2018));
+        compare("color red",
+                () -> scan(plain, v -> v.getColor().equalsIgnoreCase("red")),
+                dealership, columnar, s -> s.getVehiclesByColor("red"));
+        compare("mileage 0-30000",
+                () -> scan(plain, v -> v.getOdometer() >= 0 && v.getOdometer() <= 30000),
+                dealership, columnar, s -> s.getVehiclesByMileage(0, 30000));
+        compare("type van",
+                () -> scan(plain, v -> v.getVehicleType().equalsIgnoreCase("van")),
+                dealership, columnar, s -> s.getVehiclesByType("van"));
+        compare("SUV, 10k-20k, <60k miles",
+                () -> scan(plain, combined::matches),
+                dealership, columnar, s -> s.search(combined));
+        sink = null;
+    }
+
+    private interface StoreQuery {
+        List<Vehicle> run(InventoryStore store);
+    }
+
+    private interface Filter {
+        boolean test(Vehicle vehicle);
+    }
+
+    private static void compare(String name, Supplier<List<Vehicle>> plain, InventoryStore dealership,
+                                InventoryStore columnar, StoreQuery query) {
+        System.out.printf("  %-26s %12.3f %12.3f %12.3f%n", name,
+                time(plain), time(() -> query.run(dealership)), time(() -> query.run(columnar)));
+    }
+
+    private static List<Vehicle> scan(List<Vehicle> vehicles, Filter filter) {
+        List<Vehicle> result = new ArrayList<>();
+        for (Vehicle vehicle : vehicles) {
+            if (filter.test(vehicle)) {
+                result.add(vehicle);
+            }
+        }
+        return result;
+    }
+
+    // Average milliseconds per call after warm-up
+    static double time(Supplier<?> operation) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = operation.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink = operation.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,101 @@
+package com.dealership.bench;
+
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares {@link VehicleFormatter} against the {@code String.format} calls it replaced, for
+ * inventory file rows and display lines, reporting time and bytes allocated per vehicle.
+ * <p>
+ * Usage: {@code java com.dealership.bench.RowFormatComparison [vehicles]}
+ */
+public class RowFormatComparison {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Vehicle> vehicles = new InventoryGenerator(42).generate(count);
+        System.out.println("Vehicles: " + count);
+
+        if (!formatRows(vehicles).equals(encodeRows(vehicles))
+                || !formatDisplay(vehicles).equals(encodeDisplay(vehicles))) {
+            throw new IllegalStateException("VehicleFormatter output differs from String.format");
+        }
+
+        System.out.println("Inventory file rows:");
+        report("String.format", count, () -> formatRows(vehicles));
+        report("VehicleFormatter", count, () -> encodeRows(vehicles));
+        System.out.println("Display lines:");
+        report("String.format", count, () -> formatDisplay(vehicles));
+        report("VehicleFormatter", count, () -> encodeDisplay(vehicles));
+    }
+
+    private static String formatRows(List<Vehicle> vehicles) {
+        StringWriter writer = new StringWriter();
+        for (Vehicle vehicle : vehicles) {
+            writer.write(String.format("%d|%d|%s|%s|%s|%s|%d|%.2f",
+                    vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                    vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice()));
+            writer.write('\n');
+        }
+        return writer.toString();
+    }
+
+    private static String encodeRows(List<Vehicle> vehicles) {
+        StringWriter writer = new StringWriter();
+        VehicleFormatter formatter = new VehicleFormatter();
+        try {
+            for (Vehicle vehicle : vehicles) {
+                formatter.appendRow(vehicle).append('\n');
+                if (formatter.length() >= 8192) {
+                    formatter.writeTo(writer);
+                    formatter.clear();
+                }
+            }
+            formatter.writeTo(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static String formatDisplay(List<Vehicle> vehicles) {
+        StringBuilder lines = new StringBuilder();
+        for (Vehicle vehicle : vehicles) {
+            lines.append(String.format("VIN: %d | %d %s %s | Type: %s | Color: %s | Odometer: %d | Price: $%.2f",
+                    vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                    vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice()));
+            lines.append('\n');
+        }
+        return lines.toString();
+    }
+
+    private static String encodeDisplay(List<Vehicle> vehicles) {
+        VehicleFormatter formatter = new VehicleFormatter();
+        for (Vehicle vehicle : vehicles) {
+            formatter.appendDisplay(vehicle).append('\n');
+        }
+        return formatter.toString();
+    }
+
+    private static void report(String name, int count, Supplier<String> formatter) {
+        formatter.get();
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytesBefore = InventoryLoadComparison.allocatedBytes();
+            long start = System.nanoTime();
+            formatter.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            allocated = InventoryLoadComparison.allocatedBytes() - bytesBefore;
+        }
+        System.out.printf("  %-18s %9.1f ms %6.0f ns/vehicle %9.1f bytes allocated/vehicle%n", name,
+                bestNanos / 1e6, (double) bestNanos / count, (double) allocated / count);
+    }
+}
@@ -0,0 +1,73 @@
+package com.dealership.bench;
+
+import com.dealership.data.BinaryInventoryFile;
+import com.dealership.data.DealershipFileManager;
+import com.dealership.data.MappedInventoryStore;
+import com.dealership.model.InventoryStore;
+import com.dealership.model.VehicleQuery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Measures the time from startup to the first answers (one VIN lookup and one search)
+ * when the inventory comes from the pipe-delimited text file and when it comes from a
+ * memory-mapped binary snapshot.
+ * <p>
+ * Usage: {@code java com.dealership.bench.SnapshotStartupComparison [vehicles]}
+ */
+public class SnapshotStartupComparison {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File csv = File.createTempFile("inventory", ".csv");
+        File binary = File.createTempFile("inventory", ".bin");
+        csv.deleteOnExit();
+        binary.deleteOnExit();
+        new InventoryGenerator(42).writeInventoryFile(csv.getPath(), count);
+
+        long start = System.nanoTime();
+        BinaryInventoryFile.convertCsvToBinary(csv.getPath(), binary.getPath());
+        System.out.printf("Vehicles: %d, text file: %d bytes, binary snapshot: %d bytes (converted in %.1f ms)%n",
+                count, csv.length(), binary.length(), (System.nanoTime() - start) / 1e6);
+
+        VehicleQuery query = VehicleQuery.builder().make("Toyota").yearRange(2015, 2020).priceRange(10_000, 20_000)
+                .build();
+        int vin = new InventoryGenerator(42).nextVehicle().getVin();
+        String expected = firstAnswers(new DealershipFileManager(csv.getPath()).getDealership(), vin, query);
+        if (!expected.equals(firstAnswers(open(binary.getPath()), vin, query))) {
+            throw new IllegalStateException("Binary snapshot answers differ from the text file");
+        }
+
+        System.out.println("Open, look up one VIN and run one search:");
+        report("text file", () -> firstAnswers(new DealershipFileManager(csv.getPath()).getDealership(), vin, query));
+        report("mapped binary", () -> firstAnswers(open(binary.getPath()), vin, query));
+        report("binary to Dealership", () -> firstAnswers(open(binary.getPath()).toDealership(), vin, query));
+    }
+
+    private static MappedInventoryStore open(String path) {
+        try {
+            return MappedInventoryStore.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String firstAnswers(InventoryStore store, int vin, VehicleQuery query) {
+        return store.findByVin(vin) + " / " + store.search(query).size() + " matches";
+    }
+
+    private static void report(String name, Supplier<String> startup) {
+        startup.get();
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            startup.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        System.out.printf("  %-22s %9.1f ms%n", name, bestNanos / 1e6);
+    }
+}
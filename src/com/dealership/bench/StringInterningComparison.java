@@ -0,0 +1,41 @@
+package com.dealership.bench;
+
+import com.dealership.data.DealershipFileManager;
+import com.dealership.model.Dealership;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Measures the heap retained by a loaded inventory with and without load-time interning
+ * of make, model, type and color.
+ * <p>
+ * Usage: {@code java com.dealership.bench.StringInterningComparison [vehicles]}
+ */
+public class StringInterningComparison {
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File file = File.createTempFile("inventory", ".csv");
+        file.deleteOnExit();
+        new InventoryGenerator(42).writeInventoryFile(file.getPath(), count);
+        System.out.println("Vehicles: " + count + ", file size: " + file.length() + " bytes");
+
+        long plain = retainedBytes(file.getPath(), false);
+        long interned = retainedBytes(file.getPath(), true);
+        System.out.printf("  %-22s %14d bytes %8.1f bytes/vehicle%n", "without interning", plain, (double) plain / count);
+        System.out.printf("  %-22s %14d bytes %8.1f bytes/vehicle%n", "with interning", interned, (double) interned / count);
+        System.out.printf("  %-22s %14d bytes (%.1f%%)%n", "saved", plain - interned, 100.0 * (plain - interned) / plain);
+    }
+
+    private static long retainedBytes(String path, boolean intern) {
+        DealershipFileManager fileManager = new DealershipFileManager(path);
+        fileManager.setInternStrings(intern);
+        long before = InventoryStoreComparison.usedHeap();
+        Dealership dealership = fileManager.getDealership();
+        long retained = InventoryStoreComparison.usedHeap() - before;
+        if (dealership.size() == 0) {
+            throw new IllegalStateException("Nothing was loaded from " + path);
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,328 @@
+package com.dealership.data;
+
+import com.dealership.model.Dealership;
+import com.dealership.model.TermDictionary;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Versioned binary inventory snapshot. Everything is big-endian and every section starts
+ * on an 8-byte boundary:
+ * <pre>
+ * header      int magic "DLRI", short version, short reserved, int row count,
+ *             int section count, long offset of each section
+ * dealership  name, address and phone as strings
+ * vins        int per row
+ * years       int per row
+ * odometers   int per row
+ * prices      double per row
+ * makes       unsigned short dictionary code per row, likewise models, types, colors
+ * dictionary  per text column: int code count, then the string for each code from 1
+ * directory   int capacity (a power of two), then capacity (int vin, int row) slots of an
+ *             open-addressing table; row -1 marks an empty slot
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes, with length -1 for null; code 0
+ * is always null. A VIN that appears more than once points at its first row, matching
+ * {@link Dealership#findByVin(int)}. {@link MappedInventoryStore} reads the format.
+ */
+public final class BinaryInventoryFile {
+    static final int MAGIC = 0x444C5249;
+    static final short VERSION = 1;
+
+    static final int DEALERSHIP = 0;
+    static final int VINS = 1;
+    static final int YEARS = 2;
+    static final int ODOMETERS = 3;
+    static final int PRICES = 4;
+    static final int MAKES = 5;
+    static final int MODELS = 6;
+    static final int TYPES = 7;
+    static final int COLORS = 8;
+    static final int DICTIONARY = 9;
+    static final int DIRECTORY = 10;
+    static final int SECTION_COUNT = 11;
+    static final int HEADER_SIZE = 16 + 8 * SECTION_COUNT;
+
+    private BinaryInventoryFile() {
+    }
+
+    /**
+     * Writes a Dealership as a binary snapshot, replacing the file atomically
+     *
+     * @param dealership Dealership to write
+     * @param path       Snapshot file
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Dealership dealership, String path) throws IOException {
+        Rows rows = new Rows(dealership.getName(), dealership.getAddress(), dealership.getPhone());
+        for (Vehicle vehicle : dealership.getAllVehicles()) {
+            rows.add(vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                    vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice());
+        }
+        rows.writeTo(Paths.get(path));
+    }
+
+    /**
+     * Converts a pipe-delimited inventory file to a binary snapshot. Rows are streamed
+     * into columns without building a Dealership; malformed rows are reported and skipped
+     * as they are when loading.
+     *
+     * @param csvPath    Pipe-delimited inventory file
+     * @param binaryPath Snapshot file to write
+     * @throws IOException If either file cannot be read or written, or the inventory file has no header
+     */
+    public static void convertCsvToBinary(String csvPath, String binaryPath) throws IOException {
+        Rows[] rows = new Rows[1];
+        new CsvConverter() {
+            @Override
+            void start(String name, String address, String phone) {
+                rows[0] = new Rows(name, address, phone);
+            }
+
+            @Override
+            void row(int vin, int year, String make, String model, String vehicleType, String color,
+                     int odometer, double price) {
+                rows[0].add(vin, year, make, model, vehicleType, color, odometer, price);
+            }
+        }.convert(csvPath);
+        rows[0].writeTo(Paths.get(binaryPath));
+    }
+
+    /**
+     * Converts a binary snapshot back to a pipe-delimited inventory file, in the same
+     * format {@link DealershipFileManager#saveDealership(Dealership)} writes
+     *
+     * @param binaryPath Snapshot file
+     * @param csvPath    Inventory file to write
+     * @throws IOException If either file cannot be read or written
+     */
+    public static void convertBinaryToCsv(String binaryPath, String csvPath) throws IOException {
+        MappedInventoryStore store = MappedInventoryStore.open(binaryPath);
+        Path target = Paths.get(csvPath);
+        try (SnapshotWriter snapshot = new SnapshotWriter(Paths.get(csvPath + ".tmp"), Charset.defaultCharset(), true)) {
+            Writer writer = snapshot.writer();
+            String lineSeparator = System.lineSeparator();
+            VehicleFormatter formatter = new VehicleFormatter();
+            formatter.append(store.getName()).append('|').append(store.getAddress()).append('|')
+                    .append(store.getPhone()).append(lineSeparator);
+            for (int row = 0; row < store.size(); row++) {
+                formatter.appendRow(store.vehicleAt(row)).append(lineSeparator);
+                if (formatter.length() >= 8192) {
+                    formatter.writeTo(writer);
+                    formatter.clear();
+                }
+            }
+            formatter.writeTo(writer);
+            snapshot.commit(target);
+        }
+    }
+
+    /**
+     * Rows collected column by column, ready to be written
+     */
+    private static class Rows {
+        private final String name;
+        private final String address;
+        private final String phone;
+        private final TermDictionary makes = new TermDictionary();
+        private final TermDictionary models = new TermDictionary();
+        private final TermDictionary types = new TermDictionary();
+        private final TermDictionary colors = new TermDictionary();
+        private int[] vins = new int[1024];
+        private int[] years = new int[1024];
+        private int[] odometers = new int[1024];
+        private double[] prices = new double[1024];
+        private short[] makeCodes = new short[1024];
+        private short[] modelCodes = new short[1024];
+        private short[] typeCodes = new short[1024];
+        private short[] colorCodes = new short[1024];
+        private int count;
+
+        Rows(String name, String address, String phone) {
+            this.name = name;
+            this.address = address;
+            this.phone = phone;
+        }
+
+        void add(int vin, int year, String make, String model, String vehicleType, String color,
+                 int odometer, double price) {
+            if (count == vins.length) {
+                int capacity = count * 2;
+                vins = Arrays.copyOf(vins, capacity);
+                years = Arrays.copyOf(years, capacity);
+                odometers = Arrays.copyOf(odometers, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                makeCodes = Arrays.copyOf(makeCodes, capacity);
+                modelCodes = Arrays.copyOf(modelCodes, capacity);
+                typeCodes = Arrays.copyOf(typeCodes, capacity);
+                colorCodes = Arrays.copyOf(colorCodes, capacity);
+            }
+            vins[count] = vin;
+            years[count] = year;
+            odometers[count] = odometer;
+            prices[count] = price;
+            makeCodes[count] = (short) makes.encode(make);
+            modelCodes[count] = (short) models.encode(model);
+            typeCodes[count] = (short) types.encode(vehicleType);
+            colorCodes[count] = (short) colors.encode(color);
+            count++;
+        }
+
+        void writeTo(Path path) throws IOException {
+            byte[][] header = {utf8(name), utf8(address), utf8(phone)};
+            TermDictionary[] dictionaries = {makes, models, types, colors};
+            int[] directory = directory();
+
+            long[] offsets = new long[SECTION_COUNT];
+            long position = align(HEADER_SIZE);
+            offsets[DEALERSHIP] = position;
+            position = align(position + stringsSize(header));
+            for (int section : new int[]{VINS, YEARS, ODOMETERS}) {
+                offsets[section] = position;
+                position = align(position + 4L * count);
+            }
+            offsets[PRICES] = position;
+            position = align(position + 8L * count);
+            for (int section : new int[]{MAKES, MODELS, TYPES, COLORS}) {
+                offsets[section] = position;
+                position = align(position + 2L * count);
+            }
+            byte[][][] terms = new byte[dictionaries.length][][];
+            long dictionarySize = 0;
+            for (int i = 0; i < dictionaries.length; i++) {
+                terms[i] = new byte[dictionaries[i].size() - 1][];
+                for (int code = 1; code < dictionaries[i].size(); code++) {
+                    terms[i][code - 1] = utf8(dictionaries[i].decode(code));
+                }
+                dictionarySize += 4 + stringsSize(terms[i]);
+            }
+            offsets[DICTIONARY] = position;
+            position = align(position + dictionarySize);
+            offsets[DIRECTORY] = position;
+            long size = position + 4 + 4L * directory.length;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Inventory too large for a binary snapshot: " + size + " bytes");
+            }
+
+            Path temp = Paths.get(path + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(0);
+                out.writeInt(count);
+                out.writeInt(SECTION_COUNT);
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                pad(out, offsets[DEALERSHIP]);
+                writeStrings(out, header);
+                pad(out, offsets[VINS]);
+                writeInts(out, vins);
+                pad(out, offsets[YEARS]);
+                writeInts(out, years);
+                pad(out, offsets[ODOMETERS]);
+                writeInts(out, odometers);
+                pad(out, offsets[PRICES]);
+                for (int row = 0; row < count; row++) {
+                    out.writeDouble(prices[row]);
+                }
+                short[][] codes = {makeCodes, modelCodes, typeCodes, colorCodes};
+                for (int i = 0; i < codes.length; i++) {
+                    pad(out, offsets[MAKES + i]);
+                    for (int row = 0; row < count; row++) {
+                        out.writeShort(codes[i][row]);
+                    }
+                }
+                pad(out, offsets[DICTIONARY]);
+                for (byte[][] dictionary : terms) {
+                    out.writeInt(dictionary.length + 1);
+                    writeStrings(out, dictionary);
+                }
+                pad(out, offsets[DIRECTORY]);
+                out.writeInt(directory.length / 2);
+                for (int value : directory) {
+                    out.writeInt(value);
+                }
+                out.flush();
+                file.getChannel().force(true);
+            } catch (IOException e) {
+                temp.toFile().delete();
+                throw e;
+            }
+            SnapshotWriter.move(temp, path);
+            SnapshotWriter.syncDirectory(path);
+        }
+
+        private void writeInts(DataOutputStream out, int[] column) throws IOException {
+            for (int row = 0; row < count; row++) {
+                out.writeInt(column[row]);
+            }
+        }
+
+        // Interleaved vin, row pairs; the first row with a VIN wins
+        private int[] directory() {
+            int capacity = Integer.highestOneBit(Math.max(8, count * 2 - 1)) << 1;
+            int mask = capacity - 1;
+            int[] slots = new int[capacity * 2];
+            for (int i = 0; i < capacity; i++) {
+                slots[2 * i + 1] = -1;
+            }
+            for (int row = 0; row < count; row++) {
+                int i = MappedInventoryStore.mix(vins[row]) & mask;
+                while (slots[2 * i + 1] != -1 && slots[2 * i] != vins[row]) {
+                    i = (i + 1) & mask;
+                }
+                if (slots[2 * i + 1] == -1) {
+                    slots[2 * i] = vins[row];
+                    slots[2 * i + 1] = row;
+                }
+            }
+            return slots;
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long stringsSize(byte[][] strings) {
+        long size = 0;
+        for (byte[] string : strings) {
+            size += 4 + (string == null ? 0 : string.length);
+        }
+        return size;
+    }
+
+    private static void writeStrings(DataOutputStream out, byte[][] strings) throws IOException {
+        for (byte[] string : strings) {
+            if (string == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(string.length);
+                out.write(string);
+            }
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void pad(DataOutputStream out, long offset) throws IOException {
+        while (out.size() < offset) {
+            out.writeByte(0);
+        }
+    }
+}
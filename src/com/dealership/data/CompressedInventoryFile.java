@@ -0,0 +1,557 @@
+package com.dealership.data;
+
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed inventory file made of independently deflated blocks of vehicle rows, with an
+ * index of the blocks at the end. Blocks are inflated and parsed in parallel when the file
+ * is loaded, and reading a range of VINs inflates only the blocks whose VINs overlap it.
+ * Everything is big-endian:
+ * <pre>
+ * header      int magic "DLRZ", short version, short reserved
+ * dealership  name, address and phone as strings
+ * blocks      one zlib stream per block, each holding whole rows of the text format
+ * index       per block: long offset, int compressed length, int uncompressed length,
+ *             int row count, int lowest VIN, int highest VIN
+ * trailer     long offset of the index, int block count, int magic
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes, and rows are UTF-8 text ending in
+ * a line feed. Rows keep the inventory's order, so the VIN bounds of the blocks narrow a
+ * range read as far as the rows are in VIN order.
+ */
+public final class CompressedInventoryFile implements AutoCloseable {
+    static final int MAGIC = 0x444C525A;
+    static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = 28;
+    // Rows per block, by text size; deflate only looks back 32 KB, so larger blocks barely compress better
+    private static final int BLOCK_SIZE = 256 << 10;
+
+    private final String path;
+    private final FileChannel channel;
+    private final String name;
+    private final String address;
+    private final String phone;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    private final int[] rowCounts;
+    private final int[] minVins;
+    private final int[] maxVins;
+
+    private CompressedInventoryFile(String path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Not a compressed inventory file: " + path);
+        }
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a compressed inventory file: " + path);
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compressed inventory version " + version);
+        }
+        ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        int blocks = trailer.getInt();
+        if (trailer.getInt() != MAGIC || blocks < 0
+                || indexOffset + (long) blocks * INDEX_ENTRY_SIZE != size - TRAILER_SIZE) {
+            throw new IOException("Corrupt compressed inventory file " + path);
+        }
+
+        // Name, address and phone: each a length, then exactly that many bytes
+        String[] strings = new String[3];
+        long position = HEADER_SIZE;
+        for (int i = 0; i < strings.length; i++) {
+            int length = position + 4 > indexOffset ? -1 : read(position, 4).getInt();
+            position += 4;
+            if (length < 0 || position + length > indexOffset) {
+                throw new IOException("Corrupt compressed inventory file " + path);
+            }
+            strings[i] = new String(read(position, length).array(), StandardCharsets.UTF_8);
+            position += length;
+        }
+        this.name = strings[0];
+        this.address = strings[1];
+        this.phone = strings[2];
+
+        ByteBuffer index = read(indexOffset, blocks * INDEX_ENTRY_SIZE);
+        offsets = new long[blocks];
+        compressedLengths = new int[blocks];
+        uncompressedLengths = new int[blocks];
+        rowCounts = new int[blocks];
+        minVins = new int[blocks];
+        maxVins = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            offsets[block] = index.getLong();
+            compressedLengths[block] = index.getInt();
+            uncompressedLengths[block] = index.getInt();
+            rowCounts[block] = index.getInt();
+            minVins[block] = index.getInt();
+            maxVins[block] = index.getInt();
+        }
+    }
+
+    /**
+     * Opens a compressed inventory file, reading only its header and block index
+     *
+     * @param path File written by this class
+     * @return The open file; close it when done
+     * @throws IOException If the file cannot be read or is not a supported compressed inventory
+     */
+    public static CompressedInventoryFile open(String path) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            return new CompressedInventoryFile(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            // Lengths that point outside the file
+            throw new IOException("Corrupt compressed inventory file " + path, e);
+        }
+    }
+
+    /**
+     * Checks whether a file starts like a compressed inventory file
+     *
+     * @param path File to check
+     * @return true if the file has this format's magic number
+     */
+    public static boolean isCompressed(String path) {
+        try (InputStream in = new FileInputStream(path)) {
+            byte[] magic = new byte[4];
+            return in.read(magic) == 4 && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a Dealership as a compressed inventory file, replacing the file atomically
+     *
+     * @param dealership Dealership to write
+     * @param path       File to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Dealership dealership, String path) throws IOException {
+        try (SnapshotWriter output = new SnapshotWriter(Paths.get(path + ".tmp"), StandardCharsets.UTF_8, true)) {
+            BlockWriter blocks = new BlockWriter(output.stream(), ForkJoinPool.commonPool(),
+                    dealership.getName(), dealership.getAddress(), dealership.getPhone());
+            for (Vehicle vehicle : dealership.getAllVehicles()) {
+                blocks.add(vehicle);
+            }
+            blocks.finish();
+            output.commit(Paths.get(path));
+        }
+    }
+
+    /**
+     * Converts a pipe-delimited inventory file to a compressed one. Rows are streamed into
+     * blocks without building a Dealership; malformed rows are reported and skipped as they
+     * are when loading.
+     *
+     * @param csvPath        Pipe-delimited inventory file
+     * @param compressedPath Compressed file to write
+     * @throws IOException If either file cannot be read or written, or the inventory file has no header
+     */
+    public static void convertCsvToCompressed(String csvPath, String compressedPath) throws IOException {
+        try (SnapshotWriter output = new SnapshotWriter(Paths.get(compressedPath + ".tmp"), StandardCharsets.UTF_8, true)) {
+            BlockWriter[] blocks = new BlockWriter[1];
+            new CsvConverter() {
+                @Override
+                void start(String name, String address, String phone) throws IOException {
+                    blocks[0] = new BlockWriter(output.stream(), ForkJoinPool.commonPool(), name, address, phone);
+                }
+
+                @Override
+                void row(int vin, int year, String make, String model, String vehicleType, String color,
+                         int odometer, double price) throws IOException {
+                    blocks[0].add(new Vehicle(vin, year, make, model, vehicleType, color, odometer, price));
+                }
+            }.convert(csvPath);
+            blocks[0].finish();
+            output.commit(Paths.get(compressedPath));
+        }
+    }
+
+    /**
+     * Converts a compressed inventory file back to a pipe-delimited one, in the same format
+     * {@link DealershipFileManager#saveDealership(Dealership)} writes
+     *
+     * @param compressedPath Compressed file
+     * @param csvPath        Inventory file to write
+     * @throws IOException If either file cannot be read or written
+     */
+    public static void convertCompressedToCsv(String compressedPath, String csvPath) throws IOException {
+        try (CompressedInventoryFile file = open(compressedPath);
+             SnapshotWriter snapshot = new SnapshotWriter(Paths.get(csvPath + ".tmp"), Charset.defaultCharset(), true)) {
+            Writer writer = snapshot.writer();
+            String lineSeparator = System.lineSeparator();
+            VehicleFormatter formatter = new VehicleFormatter();
+            formatter.append(file.name).append('|').append(file.address).append('|').append(file.phone)
+                    .append(lineSeparator);
+            for (int block = 0; block < file.getBlockCount(); block++) {
+                MappedInventoryLoader.Chunk chunk = file.parseBlock(block, null, false);
+                for (Vehicle vehicle : chunk.vehicles) {
+                    formatter.appendRow(vehicle).append(lineSeparator);
+                    if (formatter.length() >= 8192) {
+                        formatter.writeTo(writer);
+                        formatter.clear();
+                    }
+                }
+            }
+            formatter.writeTo(writer);
+            snapshot.commit(Paths.get(csvPath));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public int getBlockCount() {
+        return offsets.length;
+    }
+
+    /**
+     * @return Number of vehicle rows in the file
+     */
+    public long size() {
+        long rows = 0;
+        for (int count : rowCounts) {
+            rows += count;
+        }
+        return rows;
+    }
+
+    /**
+     * @return Length of the file in bytes
+     * @throws IOException If the file cannot be read
+     */
+    public long getCompressedSize() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * @return Length of the rows as text, not counting the dealership line
+     */
+    public long getUncompressedSize() {
+        long bytes = 0;
+        for (int length : uncompressedLengths) {
+            bytes += length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Builds an editable, fully indexed Dealership holding every vehicle in the file,
+     * inflating the blocks in parallel on the common fork-join pool
+     *
+     * @return A new Dealership
+     * @throws IOException If a block cannot be read or is corrupt
+     */
+    public Dealership toDealership() throws IOException {
+        DealershipFileManager.LoadHandler handler = new DealershipFileManager.LoadHandler(false);
+        load(handler, ForkJoinPool.commonPool(), true);
+        handler.finish();
+        return handler.dealership;
+    }
+
+    /**
+     * Reads the vehicles whose VIN is within a range, inflating only the blocks whose VIN
+     * bounds overlap it
+     *
+     * @param minVin Lowest VIN, inclusive
+     * @param maxVin Highest VIN, inclusive
+     * @return Detached vehicles in file order
+     * @throws IOException If a block cannot be read or is corrupt
+     */
+    public List<Vehicle> findByVinRange(int minVin, int maxVin) throws IOException {
+        List<Vehicle> found = new ArrayList<>();
+        for (int block = 0; block < offsets.length; block++) {
+            if (maxVins[block] < minVin || minVins[block] > maxVin) {
+                continue;
+            }
+            for (Vehicle vehicle : parseBlock(block, null, false).vehicles) {
+                if (vehicle.getVin() >= minVin && vehicle.getVin() <= maxVin) {
+                    found.add(vehicle);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Loads every block into the Dealership created by the handler's header callback
+     *
+     * @param handler      Receives the header and rejected rows; vehicles go to its dealership
+     * @param pool         Pool that inflates and parses the blocks
+     * @param shareStrings true to hand out one String instance per distinct text value
+     * @throws IOException If a block cannot be read or is corrupt
+     */
+    void load(DealershipFileManager.LoadHandler handler, ForkJoinPool pool, boolean shareStrings) throws IOException {
+        if (!handler.header(name + "|" + address + "|" + phone)) {
+            return;
+        }
+        ConcurrentMap<String, String> sharedTerms = shareStrings ? new ConcurrentHashMap<>() : null;
+        List<ForkJoinTask<MappedInventoryLoader.Chunk>> tasks = new ArrayList<>(offsets.length);
+        for (int block = 0; block < offsets.length; block++) {
+            int current = block;
+            tasks.add(pool.submit(() -> parseBlock(current, sharedTerms, shareStrings)));
+        }
+        MappedInventoryLoader.merge(tasks, handler, (int) Math.min(size(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Passes the header and then every row to a parser handler, one block at a time in file order
+     *
+     * @param handler      Handler to receive the rows
+     * @param shareStrings true to hand out one String instance per distinct text value
+     * @throws IOException If a block cannot be read or is corrupt
+     */
+    void parse(InventoryParser.Handler handler, boolean shareStrings) throws IOException {
+        if (!handler.header(name + "|" + address + "|" + phone)) {
+            return;
+        }
+        InventoryParser parser = new InventoryParser(StandardCharsets.UTF_8, shareStrings);
+        for (int block = 0; block < offsets.length; block++) {
+            byte[] rows = inflate(block);
+            parser.parseRows(ByteBuffer.wrap(rows), 0, rows.length, handler);
+        }
+    }
+
+    private MappedInventoryLoader.Chunk parseBlock(int block, ConcurrentMap<String, String> sharedTerms,
+                                                   boolean shareStrings) throws IOException {
+        byte[] rows = inflate(block);
+        MappedInventoryLoader.Chunk chunk = new MappedInventoryLoader.Chunk();
+        InventoryParser parser = new InventoryParser(StandardCharsets.UTF_8, shareStrings);
+        parser.setSharedTerms(sharedTerms);
+        parser.parseRows(ByteBuffer.wrap(rows), 0, rows.length, chunk);
+        return chunk;
+    }
+
+    private byte[] inflate(int block) throws IOException {
+        ByteBuffer compressed = read(offsets[block], compressedLengths[block]);
+        byte[] rows = new byte[uncompressedLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, compressed.limit());
+            int length = 0;
+            while (!inflater.finished() && length < rows.length) {
+                int inflated = inflater.inflate(rows, length, rows.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rows.length || !inflater.finished()) {
+                throw new IOException("Corrupt block " + block + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return rows;
+    }
+
+    // Positional reads, so several threads can read blocks at once
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + path);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] deflate(byte[] rows) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(rows);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, rows.length / 4)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes the header, then cuts rows into blocks that are compressed in parallel and
+     * written in order, keeping only a few blocks in memory at a time
+     */
+    static final class BlockWriter {
+        private final DataOutputStream out;
+        private final ForkJoinPool pool;
+        private final int window;
+        private final VehicleFormatter formatter = new VehicleFormatter();
+        private final ArrayDeque<PendingBlock> pending = new ArrayDeque<>();
+        private final DataOutputStream index;
+        private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        private long position;
+        private int blocks;
+        private int rows;
+        private int minVin = Integer.MAX_VALUE;
+        private int maxVin = Integer.MIN_VALUE;
+
+        /**
+         * Constructor for the BlockWriter class. Writes the header and dealership strings.
+         *
+         * @param out     Stream to write the file to, not closed by this class
+         * @param pool    Pool that compresses the blocks
+         * @param name    Name of the dealership
+         * @param address Address of the dealership
+         * @param phone   Phone number of the dealership
+         * @throws IOException If the stream cannot be written
+         */
+        BlockWriter(OutputStream out, ForkJoinPool pool, String name, String address, String phone)
+                throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.pool = pool;
+            this.window = pool.getParallelism() * 2;
+            this.index = new DataOutputStream(indexBytes);
+            this.out.writeInt(MAGIC);
+            this.out.writeShort(VERSION);
+            this.out.writeShort(0);
+            position = HEADER_SIZE;
+            for (String value : new String[]{name, address, phone}) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                this.out.writeInt(bytes.length);
+                this.out.write(bytes);
+                position += 4 + bytes.length;
+            }
+        }
+
+        void add(Vehicle vehicle) throws IOException {
+            formatter.appendRow(vehicle).append('\n');
+            rows++;
+            minVin = Math.min(minVin, vehicle.getVin());
+            maxVin = Math.max(maxVin, vehicle.getVin());
+            if (formatter.length() >= BLOCK_SIZE) {
+                seal();
+            }
+        }
+
+        /**
+         * Writes the last block, the index and the trailer, and flushes the stream
+         */
+        void finish() throws IOException {
+            seal();
+            while (!pending.isEmpty()) {
+                writeOldest();
+            }
+            long indexOffset = position;
+            index.flush();
+            indexBytes.writeTo(out);
+            out.writeLong(indexOffset);
+            out.writeInt(blocks);
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+
+        private void seal() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            byte[] text = formatter.toString().getBytes(StandardCharsets.UTF_8);
+            pending.add(new PendingBlock(pool.submit(() -> deflate(text)), text.length, rows, minVin, maxVin));
+            formatter.clear();
+            rows = 0;
+            minVin = Integer.MAX_VALUE;
+            maxVin = Integer.MIN_VALUE;
+            if (pending.size() > window) {
+                writeOldest();
+            }
+        }
+
+        private void writeOldest() throws IOException {
+            PendingBlock block = pending.poll();
+            byte[] compressed = block.compressed.join();
+            out.write(compressed);
+            index.writeLong(position);
+            index.writeInt(compressed.length);
+            index.writeInt(block.uncompressedLength);
+            index.writeInt(block.rows);
+            index.writeInt(block.minVin);
+            index.writeInt(block.maxVin);
+            position += compressed.length;
+            blocks++;
+        }
+    }
+
+    /**
+     * Block being compressed, with the index values it will get
+     */
+    private static final class PendingBlock {
+        final ForkJoinTask<byte[]> compressed;
+        final int uncompressedLength;
+        final int rows;
+        final int minVin;
+        final int maxVin;
+
+        PendingBlock(ForkJoinTask<byte[]> compressed, int uncompressedLength, int rows, int minVin, int maxVin) {
+            this.compressed = compressed;
+            this.uncompressedLength = uncompressedLength;
+            this.rows = rows;
+            this.minVin = minVin;
+            this.maxVin = maxVin;
+        }
+    }
+}
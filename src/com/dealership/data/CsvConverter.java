@@ -0,0 +1,87 @@
+package com.dealership.data;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Streams a pipe-delimited inventory file into another format without building a
+ * Dealership. The header line is split into name, address and phone, and malformed rows
+ * are reported and skipped as they are when loading.
+ */
+abstract class CsvConverter implements InventoryParser.Handler {
+    private boolean started;
+    // The first failure of start() or row(); parsing goes on, but nothing more is written
+    private IOException failure;
+
+    /**
+     * Called once with the dealership line, before any row
+     *
+     * @param name    Name of the dealership
+     * @param address Address of the dealership
+     * @param phone   Phone number of the dealership
+     * @throws IOException If the output cannot be written
+     */
+    abstract void start(String name, String address, String phone) throws IOException;
+
+    /**
+     * Called for every valid vehicle row, in file order
+     *
+     * @throws IOException If the output cannot be written
+     */
+    abstract void row(int vin, int year, String make, String model, String vehicleType, String color,
+                      int odometer, double price) throws IOException;
+
+    /**
+     * Reads a whole inventory file, in the platform charset the file manager writes
+     *
+     * @param csvPath Pipe-delimited inventory file
+     * @throws IOException If the file cannot be read, has no header, or the output cannot be written
+     */
+    void convert(String csvPath) throws IOException {
+        try (InputStream in = new FileInputStream(csvPath)) {
+            new InventoryParser(Charset.defaultCharset(), true).parse(in, this);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (!started) {
+            throw new IOException("No dealership header in " + csvPath);
+        }
+    }
+
+    @Override
+    public final boolean header(String line) {
+        String[] fields = line.split("\\|");
+        if (fields.length < 3) {
+            return false;
+        }
+        try {
+            start(fields[0].trim(), fields[1].trim(), fields[2].trim());
+            started = true;
+            return true;
+        } catch (IOException e) {
+            failure = e;
+            return false;
+        }
+    }
+
+    @Override
+    public final void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                              int odometer, double price) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            row(vin, year, make, model, vehicleType, color, odometer, price);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    @Override
+    public final void rejected(NumberFormatException e) {
+        System.err.println("Error parsing vehicle data: " + e.getMessage());
+    }
+}
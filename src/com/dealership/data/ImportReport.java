@@ -0,0 +1,115 @@
+package com.dealership.data;
+
+/**
+ * Counts and timings of one {@link InventoryImporter} run
+ */
+public final class ImportReport {
+    private final String feedPath;
+    private final String rejectPath;
+    // Filled in by the importer as it goes
+    long bytes;
+    int rowsRead;
+    int imported;
+    int malformed;
+    int invalid;
+    int duplicates;
+    long parseNanos;
+    long insertNanos;
+    long saveNanos;
+    long totalNanos;
+
+    ImportReport(String feedPath, String rejectPath) {
+        this.feedPath = feedPath;
+        this.rejectPath = rejectPath;
+    }
+
+    public String getFeedPath() {
+        return feedPath;
+    }
+
+    public String getRejectPath() {
+        return rejectPath;
+    }
+
+    /**
+     * @return Rows in the feed, not counting blank lines
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return Vehicles added to the inventory
+     */
+    public int getImported() {
+        return imported;
+    }
+
+    /**
+     * @return Rows with a bad number or fewer than eight fields
+     */
+    public int getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * @return Rows that failed {@link com.dealership.model.Vehicle#isValid()}
+     */
+    public int getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * @return Rows whose VIN was already in the inventory or earlier in the feed
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getRejected() {
+        return malformed + invalid + duplicates;
+    }
+
+    /**
+     * @return Time spent parsing and validating, summed over the parallel chunks
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * @return Time spent checking VINs and adding vehicles to the inventory
+     */
+    public long getInsertNanos() {
+        return insertNanos;
+    }
+
+    /**
+     * @return Time the final save took, or 0 if nothing was saved
+     */
+    public long getSaveNanos() {
+        return saveNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return Feed rows handled per second, from start to saved
+     */
+    public double getRowsPerSecond() {
+        return totalNanos > 0 ? rowsRead / (totalNanos / 1e9) : 0;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = totalNanos / 1e9;
+        return String.format("Imported %d of %d rows from %s in %.2f s (%.0f rows/s, %.1f MB/s)%n"
+                        + "Rejected: %d malformed, %d invalid, %d duplicate VINs (written to %s)%n"
+                        + "Parse and validate: %.1f ms (all threads), insert: %.1f ms, save: %.1f ms",
+                imported, rowsRead, feedPath, seconds, getRowsPerSecond(),
+                seconds > 0 ? bytes / seconds / (1 << 20) : 0, malformed, invalid, duplicates, rejectPath,
+                parseNanos / 1e6, insertNanos / 1e6, saveNanos / 1e6);
+    }
+}
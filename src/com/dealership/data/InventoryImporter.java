@@ -0,0 +1,307 @@
+package com.dealership.data;
+
+import com.dealership.metrics.InventoryMetrics;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Adds the vehicles of a dealer feed to a Dealership in bulk. A feed has the vehicle rows of
+ * an inventory file (vin|year|make|model|type|color|odometer|price) and no header line.
+ * <p>
+ * The feed is memory-mapped and its line-aligned chunks are parsed and validated in
+ * parallel, with the rules {@link Vehicle#isValid()} applies to a vehicle added by hand.
+ * Valid rows are then checked in file order against the VINs already in the inventory and
+ * earlier in the feed, added in batches, and saved once at the end. Every row that is not
+ * imported goes to a reject file in feed order, as it was written, with the reason in front:
+ * <pre>
+ * MALFORMED|10112|199x|Ford|Explorer|SUV|Red|525123|995.00
+ * TOO_FEW_FIELDS|37846|2001|Ford
+ * INVALID|44901|1850|Honda|Civic|car|Gray|103221|6995.00
+ * DUPLICATE_VIN|44901|2012|Honda|Civic|car|Gray|103221|6995.00
+ * </pre>
+ */
+public class InventoryImporter {
+    private static final int DEFAULT_BATCH_SIZE = 50_000;
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+    private static final String REJECTS_SUFFIX = ".rejects";
+
+    private final Dealership dealership;
+    private final DealershipFileManager fileManager;
+    private final ForkJoinPool pool;
+    private final Charset charset = Charset.defaultCharset();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Constructor for the InventoryImporter class
+     *
+     * @param dealership  Inventory to add the feed's vehicles to
+     * @param fileManager Manager that saves the inventory after an import, or null to not save
+     */
+    public InventoryImporter(Dealership dealership, DealershipFileManager fileManager) {
+        this(dealership, fileManager, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for the InventoryImporter class
+     *
+     * @param dealership  Inventory to add the feed's vehicles to
+     * @param fileManager Manager that saves the inventory after an import, or null to not save
+     * @param pool        Pool that parses and validates the feed's chunks
+     */
+    public InventoryImporter(Dealership dealership, DealershipFileManager fileManager, ForkJoinPool pool) {
+        this.dealership = dealership;
+        this.fileManager = fileManager;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets how many vehicles are added to the inventory in one step. Searches on a
+     * {@link com.dealership.model.ConcurrentDealership} wait for at most one batch.
+     *
+     * @param batchSize Vehicles per batch
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports a feed, writing its rejected rows next to it ({@code feed.csv.rejects})
+     *
+     * @param feedPath Feed file
+     * @return Counts and timings of the import
+     * @throws IOException If the feed cannot be read or the reject file cannot be written
+     */
+    public ImportReport importFeed(String feedPath) throws IOException {
+        return importFeed(feedPath, feedPath + REJECTS_SUFFIX);
+    }
+
+    /**
+     * Imports a feed
+     *
+     * @param feedPath   Feed file
+     * @param rejectPath File to write the rejected rows to, replaced if it exists
+     * @return Counts and timings of the import
+     * @throws IOException If the feed cannot be read or the reject file cannot be written
+     */
+    public ImportReport importFeed(String feedPath, String rejectPath) throws IOException {
+        long start = System.nanoTime();
+        long metricsStart = InventoryMetrics.start();
+        ImportReport report = new ImportReport(feedPath, rejectPath);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(feedPath), StandardOpenOption.READ);
+             Writer rejects = Files.newBufferedWriter(Paths.get(rejectPath), charset)) {
+            long size = channel.size();
+            report.bytes = size;
+            // Only a few chunks are parsed ahead of the one being inserted, so the feed is never all in memory
+            ArrayDeque<ForkJoinTask<Chunk>> tasks = new ArrayDeque<>();
+            int window = pool.getParallelism() * 2;
+            ConcurrentMap<String, String> sharedTerms = new ConcurrentHashMap<>();
+            long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                    Math.min(MAX_CHUNK_SIZE, size / (pool.getParallelism() * 4L) + 1));
+            long position = 0;
+
+            // Chunks are joined in file order, so the first row with a VIN is the one imported
+            Set<Integer> feedVins = new HashSet<>();
+            List<Vehicle> batch = new ArrayList<>(batchSize);
+            // Parse rejects wait here until the duplicates among the valid rows before them are known
+            Deque<RejectedRow> pending = new ArrayDeque<>();
+            long vehiclesRead = 0;
+            while (position < size || !tasks.isEmpty()) {
+                while (position < size && tasks.size() < window) {
+                    long end = position + chunkSize >= size ? size
+                            : MappedInventoryLoader.lineEnd(channel, position + chunkSize, size);
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                    tasks.add(pool.submit(() -> parse(mapped, sharedTerms)));
+                    position = end;
+                }
+                Chunk chunk = tasks.poll().join();
+                long insertStart = System.nanoTime();
+                report.parseNanos += chunk.nanos;
+                report.rowsRead += chunk.rows;
+                report.malformed += chunk.malformed;
+                report.invalid += chunk.invalid;
+                for (RejectedRow reject : chunk.rejects) {
+                    reject.vehiclesBefore += vehiclesRead;
+                    pending.add(reject);
+                }
+                for (Vehicle vehicle : chunk.vehicles) {
+                    batch.add(vehicle);
+                    if (batch.size() == batchSize) {
+                        insert(batch, vehiclesRead + 1 - batch.size(), feedVins, report, pending, rejects);
+                        batch.clear();
+                    }
+                    vehiclesRead++;
+                }
+                report.insertNanos += System.nanoTime() - insertStart;
+            }
+            long insertStart = System.nanoTime();
+            insert(batch, vehiclesRead - batch.size(), feedVins, report, pending, rejects);
+            writeRejects(pending, Long.MAX_VALUE, rejects);
+            report.insertNanos += System.nanoTime() - insertStart;
+        }
+
+        if (fileManager != null && report.imported > 0) {
+            long saveStart = System.nanoTime();
+            fileManager.saveDealership(dealership);
+            report.saveNanos = System.nanoTime() - saveStart;
+        }
+        report.totalNanos = System.nanoTime() - start;
+        InventoryMetrics.IMPORT.record(metricsStart);
+        return report;
+    }
+
+    private Chunk parse(MappedByteBuffer buffer, ConcurrentMap<String, String> sharedTerms) {
+        long start = System.nanoTime();
+        InventoryParser parser = new InventoryParser(charset, true);
+        parser.setSharedTerms(sharedTerms);
+        Chunk chunk = new Chunk(parser);
+        parser.parseRows(buffer, 0, buffer.limit(), chunk);
+        chunk.nanos = System.nanoTime() - start;
+        return chunk;
+    }
+
+    /**
+     * Adds the vehicles whose VIN is new, as one step other threads' edits cannot interleave
+     * with, then writes the batch's duplicates with the pending rejects in feed order
+     *
+     * @param first Number of valid rows in the feed before the batch
+     */
+    private void insert(List<Vehicle> batch, long first, Set<Integer> feedVins, ImportReport report,
+                        Deque<RejectedRow> pending, Writer rejects) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean[] duplicate = new boolean[batch.size()];
+        int added = dealership.atomically(() -> {
+            List<Vehicle> accepted = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Vehicle vehicle = batch.get(i);
+                if (feedVins.add(vehicle.getVin()) && !dealership.containsVin(vehicle.getVin())) {
+                    accepted.add(vehicle);
+                } else {
+                    duplicate[i] = true;
+                }
+            }
+            dealership.addVehicles(accepted);
+            return accepted.size();
+        });
+        report.imported += added;
+        report.duplicates += batch.size() - added;
+        VehicleFormatter formatter = new VehicleFormatter();
+        for (int i = 0; i < batch.size(); i++) {
+            writeRejects(pending, first + i, rejects);
+            if (duplicate[i]) {
+                formatter.clear().append("DUPLICATE_VIN|").appendRow(batch.get(i)).append(System.lineSeparator())
+                        .writeTo(rejects);
+            }
+        }
+    }
+
+    // Writes the pending rejects that come before the given valid row
+    private static void writeRejects(Deque<RejectedRow> pending, long vehiclesBefore, Writer rejects)
+            throws IOException {
+        while (!pending.isEmpty() && pending.peek().vehiclesBefore <= vehiclesBefore) {
+            rejects.write(pending.poll().line);
+            rejects.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * A rejected row's line, placed in the feed by the number of valid rows before it
+     */
+    private static final class RejectedRow {
+        long vehiclesBefore;
+        final String line;
+
+        RejectedRow(long vehiclesBefore, String line) {
+            this.vehiclesBefore = vehiclesBefore;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Valid vehicles and reject lines from one chunk, in file order
+     */
+    private static class Chunk implements InventoryParser.Handler {
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<RejectedRow> rejects = new ArrayList<>();
+        final InventoryParser parser;
+        int rows;
+        int malformed;
+        int invalid;
+        long nanos;
+
+        Chunk(InventoryParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean header(String line) {
+            return true;
+        }
+
+        @Override
+        public void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                            int odometer, double price) {
+            rows++;
+            Vehicle vehicle = new Vehicle(vin, year, make, model, vehicleType, color, odometer, price);
+            if (vehicle.isValid()) {
+                vehicles.add(vehicle);
+            } else {
+                invalid++;
+                reject("INVALID|" + parser.currentLine());
+            }
+        }
+
+        @Override
+        public void rejected(NumberFormatException e) {
+            // Reported with the row's text below
+        }
+
+        @Override
+        public void rejected(NumberFormatException e, String line) {
+            rows++;
+            malformed++;
+            reject("MALFORMED|" + line);
+        }
+
+        @Override
+        public void skipped(String line) {
+            // Blank lines, such as a trailing one, are not rows
+            if (line.trim().isEmpty()) {
+                return;
+            }
+            rows++;
+            malformed++;
+            reject("TOO_FEW_FIELDS|" + line);
+        }
+
+        private void reject(String line) {
+            rejects.add(new RejectedRow(vehicles.size(), line));
+        }
+    }
+}
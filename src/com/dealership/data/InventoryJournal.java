@@ -0,0 +1,145 @@
+package com.dealership.data;
+
+import com.dealership.metrics.InventoryMetrics;
+import com.dealership.model.Dealership;
+import com.dealership.model.InventoryChange;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleFormatter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads and writes the change journal kept next to an inventory file. Each line is one
+ * {@link InventoryChange}, keyed by VIN:
+ * <pre>
+ * ADD|vin|year|make|model|type|color|odometer|price
+ * REMOVE|vin
+ * UPDATE|old vin|vin|year|make|model|type|color|odometer|price
+ * </pre>
+ * Vehicle fields use the same format as the rows of the inventory file.
+ */
+final class InventoryJournal {
+    private static final String DELIMITER = "\\|";
+
+    private InventoryJournal() {
+    }
+
+    /**
+     * Appends changes to a journal, creating it if needed
+     *
+     * @param journal Journal file
+     * @param changes Changes to append, oldest first
+     * @param charset Charset of the journal
+     * @param sync    true to force the appended lines to disk before returning
+     * @return Length of the journal after the append
+     * @throws IOException If the journal cannot be written
+     */
+    static long append(Path journal, List<InventoryChange> changes, Charset charset, boolean sync)
+            throws IOException {
+        VehicleFormatter formatter = new VehicleFormatter();
+        String lineSeparator = System.lineSeparator();
+        for (InventoryChange change : changes) {
+            formatter.append(change.getType().name()).append('|');
+            if (change.getType() == InventoryChange.Type.REMOVE) {
+                formatter.appendInt(change.getVin());
+            } else {
+                if (change.getType() == InventoryChange.Type.UPDATE) {
+                    formatter.appendInt(change.getVin()).append('|');
+                }
+                formatter.appendRow(change.getValues());
+            }
+            formatter.append(lineSeparator);
+        }
+        ByteBuffer bytes = charset.encode(CharBuffer.wrap(formatter.toString()));
+        InventoryMetrics.BYTES_WRITTEN.add(bytes.remaining());
+        try (FileChannel channel = FileChannel.open(journal,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+            return channel.size();
+        }
+    }
+
+    /**
+     * Applies every change in a journal to a Dealership, in order. A last line without a
+     * line terminator is the remains of an interrupted append; it is skipped and cut off
+     * the file so later appends start on a fresh line.
+     *
+     * @param journal    Journal file; nothing happens if it does not exist
+     * @param dealership Dealership loaded from the snapshot the journal was written against
+     * @param charset    Charset of the journal
+     * @return Number of changes applied
+     * @throws IOException If the journal cannot be read
+     */
+    static int replay(Path journal, Dealership dealership, Charset charset) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(journal);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n' && bytes[complete - 1] != '\r') {
+            complete--;
+        }
+        if (complete < bytes.length) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+
+        int applied = 0;
+        for (String line : new String(bytes, 0, complete, charset).split("\r\n|\r|\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            InventoryChange change = parse(line);
+            if (change == null) {
+                System.err.println("Error parsing journal entry: " + line);
+            } else if (change.applyTo(dealership)) {
+                applied++;
+            } else {
+                System.err.println("Journal entry refers to a VIN not in the inventory: " + line);
+            }
+        }
+        return applied;
+    }
+
+    // Returns null if the line is not a well-formed change
+    private static InventoryChange parse(String line) {
+        String[] fields = line.split(DELIMITER);
+        try {
+            switch (fields[0]) {
+                case "ADD":
+                    return fields.length >= 9 ? InventoryChange.add(vehicle(fields, 1)) : null;
+                case "REMOVE":
+                    return fields.length >= 2 ? InventoryChange.remove(Integer.parseInt(fields[1].trim())) : null;
+                case "UPDATE":
+                    return fields.length >= 10
+                            ? InventoryChange.update(Integer.parseInt(fields[1].trim()), vehicle(fields, 2))
+                            : null;
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Vehicle vehicle(String[] fields, int first) {
+        return new Vehicle(Integer.parseInt(fields[first].trim()), Integer.parseInt(fields[first + 1].trim()),
+                fields[first + 2].trim(), fields[first + 3].trim(), fields[first + 4].trim(),
+                fields[first + 5].trim(), Integer.parseInt(fields[first + 6].trim()),
+                Double.parseDouble(fields[first + 7].trim()));
+    }
+}
@@ -0,0 +1,474 @@
+package com.dealership.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hand-written scanner for the pipe-delimited inventory format. Numbers are parsed straight
+ * from the byte buffer, and make, model, type and color come from a cache keyed by the raw
+ * bytes, so a typical row allocates nothing but the values the handler keeps.
+ * <p>
+ * Rows are accepted and rejected exactly as the {@code split("\\|")}, {@code trim()},
+ * {@code Integer.parseInt}/{@code Double.parseDouble} loader did: rows with fewer than eight
+ * fields are skipped, and rows with a bad number are reported through
+ * {@link Handler#rejected(NumberFormatException)} with the same exception message. Handlers
+ * that keep a reject file can also receive the text of those rows.
+ * Inputs the fast paths do not cover fall back to the JDK parsers.
+ * <p>
+ * A parser is not thread-safe; use one per thread.
+ */
+public final class InventoryParser {
+    /**
+     * Receives what the parser reads
+     */
+    public interface Handler {
+        /**
+         * Called with the first line of a stream
+         *
+         * @param line The header line (name|address|phone)
+         * @return true to go on reading vehicle rows
+         */
+        boolean header(String line);
+
+        /**
+         * Called for every valid vehicle row
+         */
+        void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                     int odometer, double price);
+
+        /**
+         * Called for every row with a malformed number
+         *
+         * @param e The exception the JDK parser throws for the bad field
+         */
+        void rejected(NumberFormatException e);
+
+        /**
+         * Called for every row with a malformed number, with the row's text
+         *
+         * @param e    The exception the JDK parser throws for the bad field
+         * @param line The rejected row
+         */
+        default void rejected(NumberFormatException e, String line) {
+            rejected(e);
+        }
+
+        /**
+         * Called for every row with fewer than eight fields, which is otherwise skipped silently
+         *
+         * @param line The skipped row
+         */
+        default void skipped(String line) {
+        }
+    }
+
+    private static final int FIELDS = 8;
+    private static final int MAX_CACHED_TERMS = 1 << 16;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Charset charset;
+    private final boolean shareStrings;
+    private ConcurrentMap<String, String> sharedTerms;
+    // Start and end offsets of the eight fields of the current row
+    private final int[] bounds = new int[FIELDS * 2];
+    private boolean expectHeader;
+    private boolean stopped;
+    private boolean pendingCr;
+    // The row being handed to the handler, decoded only if the handler asks for it
+    private byte[] rowBuffer;
+    private int rowStart;
+    private int rowEnd;
+
+    private byte[][] termBytes = new byte[1024][];
+    private String[] termValues = new String[1024];
+    private int termCount;
+
+    /**
+     * Constructor for the InventoryParser class
+     *
+     * @param charset      Charset of the inventory file
+     * @param shareStrings true to hand out one String instance per distinct text value
+     */
+    public InventoryParser(Charset charset, boolean shareStrings) {
+        this.charset = charset;
+        this.shareStrings = shareStrings;
+    }
+
+    /**
+     * Makes text values canonical across several parsers, such as the per-chunk parsers of
+     * a parallel load. The map is consulted only the first time this parser sees a value.
+     *
+     * @param sharedTerms Map from each value to its canonical instance
+     */
+    public void setSharedTerms(ConcurrentMap<String, String> sharedTerms) {
+        this.sharedTerms = sharedTerms;
+    }
+
+    /**
+     * Reads a whole inventory stream: the header line first, then every vehicle row
+     *
+     * @param in      Stream to read, not closed by this method
+     * @param handler Receiver of the parsed data
+     * @throws IOException If the stream cannot be read
+     */
+    public void parse(InputStream in, Handler handler) throws IOException {
+        expectHeader = true;
+        stream(in, handler);
+    }
+
+    /**
+     * Parses every vehicle row in a range of a buffer, such as a chunk of a memory-mapped
+     * file. The range must start at the beginning of a line; the last line may end at
+     * {@code to} without a line terminator.
+     *
+     * @param buffer  Buffer holding the rows
+     * @param from    Offset of the first row
+     * @param to      Offset just past the last row
+     * @param handler Receiver of the parsed rows
+     */
+    public void parseRows(ByteBuffer buffer, int from, int to, Handler handler) {
+        ByteBuffer range = buffer.duplicate();
+        range.limit(to).position(from);
+        expectHeader = false;
+        try {
+            stream(new ByteBufferInputStream(range), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the text of the row being reported, for a handler that keeps some rows as they
+     * were written, such as the invalid rows of an import
+     *
+     * @return The current row
+     * @throws IllegalStateException if called outside a {@link Handler} call for a row
+     */
+    public String currentLine() {
+        if (rowBuffer == null) {
+            throw new IllegalStateException("No row is being parsed");
+        }
+        return decode(rowBuffer, rowStart, rowEnd);
+    }
+
+    private void stream(InputStream in, Handler handler) throws IOException {
+        byte[] data = new byte[1 << 16];
+        int filled = 0;
+        stopped = false;
+        pendingCr = false;
+
+        while (!stopped) {
+            int read = in.read(data, filled, data.length - filled);
+            if (read < 0) {
+                scanLines(data, 0, filled, true, handler);
+                return;
+            }
+            filled += read;
+            int consumed = scanLines(data, 0, filled, false, handler);
+            // Keep the partial last line, growing the buffer if a single line fills it
+            System.arraycopy(data, consumed, data, 0, filled - consumed);
+            filled -= consumed;
+            if (filled == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+        }
+    }
+
+    // Returns the offset of the first byte that is not part of a complete line
+    private int scanLines(byte[] buffer, int from, int to, boolean endOfInput, Handler handler) {
+        int lineStart = from;
+        if (pendingCr && lineStart < to) {
+            // The previous read ended on a CR; swallow the LF of a CRLF pair
+            pendingCr = false;
+            if (buffer[lineStart] == '\n') {
+                lineStart++;
+            }
+        }
+        for (int i = lineStart; i < to; i++) {
+            byte b = buffer[i];
+            if (b == '\n' || b == '\r') {
+                line(buffer, lineStart, i, handler);
+                if (stopped) {
+                    return to;
+                }
+                if (b == '\r') {
+                    if (i + 1 == to) {
+                        pendingCr = true;
+                    } else if (buffer[i + 1] == '\n') {
+                        i++;
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < to) {
+            line(buffer, lineStart, to, handler);
+            lineStart = to;
+        }
+        return lineStart;
+    }
+
+    private void line(byte[] buffer, int start, int end, Handler handler) {
+        if (expectHeader) {
+            expectHeader = false;
+            stopped = !handler.header(decode(buffer, start, end));
+            return;
+        }
+        rowBuffer = buffer;
+        rowStart = start;
+        rowEnd = end;
+        try {
+            row(buffer, start, end, handler);
+        } catch (NumberFormatException e) {
+            handler.rejected(e, decode(buffer, start, end));
+        } finally {
+            rowBuffer = null;
+        }
+    }
+
+    private void row(byte[] buffer, int start, int end, Handler handler) {
+        int[] bounds = this.bounds;
+        int field = 0;
+        int fieldStart = start;
+        int pos = start;
+        for (; pos < end; pos++) {
+            if (buffer[pos] == '|') {
+                bounds[field * 2] = fieldStart;
+                bounds[field * 2 + 1] = pos;
+                fieldStart = pos + 1;
+                if (++field == FIELDS) {
+                    break;
+                }
+            }
+        }
+        if (field < FIELDS) {
+            bounds[field * 2] = fieldStart;
+            bounds[field * 2 + 1] = end;
+            field++;
+        }
+        if (field < FIELDS) {
+            handler.skipped(decode(buffer, start, end));
+            return;
+        }
+        // split() drops trailing empty fields, so an empty price with nothing after it means a short row
+        if (bounds[14] == bounds[15] && onlyDelimiters(buffer, bounds[15], end)) {
+            handler.skipped(decode(buffer, start, end));
+            return;
+        }
+
+        int vin = parseInt(buffer, 0);
+        int year = parseInt(buffer, 1);
+        String make = term(buffer, 2);
+        String model = term(buffer, 3);
+        String vehicleType = term(buffer, 4);
+        String color = term(buffer, 5);
+        int odometer = parseInt(buffer, 6);
+        double price = parseDouble(buffer, 7);
+        handler.vehicle(vin, year, make, model, vehicleType, color, odometer, price);
+    }
+
+    private static boolean onlyDelimiters(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] != '|') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Narrows field bounds the way String.trim() does
+    private void trim(byte[] buffer, int field) {
+        int start = bounds[field * 2];
+        int end = bounds[field * 2 + 1];
+        while (start < end && (buffer[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        bounds[field * 2] = start;
+        bounds[field * 2 + 1] = end;
+    }
+
+    private int parseInt(byte[] buffer, int field) {
+        trim(buffer, field);
+        int start = bounds[field * 2];
+        int end = bounds[field * 2 + 1];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 10) {
+            return Integer.parseInt(decode(buffer, start, end));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(decode(buffer, start, end));
+            }
+            value = value * 10 + digit;
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(decode(buffer, start, end));
+        }
+        return (int) value;
+    }
+
+    private double parseDouble(byte[] buffer, int field) {
+        trim(buffer, field);
+        int start = bounds[field * 2];
+        int end = bounds[field * 2 + 1];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                return Double.parseDouble(decode(buffer, start, end));
+            }
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+            if (mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+                return Double.parseDouble(decode(buffer, start, end));
+            }
+        }
+        if (digits == 0) {
+            return Double.parseDouble(decode(buffer, start, end));
+        }
+        // Both operands are exact doubles, so one correctly rounded division gives the
+        // same result as Double.parseDouble
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private String term(byte[] buffer, int field) {
+        trim(buffer, field);
+        int start = bounds[field * 2];
+        int end = bounds[field * 2 + 1];
+        if (!shareStrings) {
+            return decode(buffer, start, end);
+        }
+
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int mask = termBytes.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (termBytes[slot] != null) {
+            if (sameBytes(termBytes[slot], buffer, start, end)) {
+                return termValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String value = decode(buffer, start, end);
+        if (sharedTerms != null) {
+            String shared = sharedTerms.putIfAbsent(value, value);
+            if (shared != null) {
+                value = shared;
+            }
+        }
+        if (termCount < MAX_CACHED_TERMS) {
+            termBytes[slot] = Arrays.copyOfRange(buffer, start, end);
+            termValues[slot] = value;
+            if (++termCount * 2 > termBytes.length) {
+                growTerms();
+            }
+        }
+        return value;
+    }
+
+    private static boolean sameBytes(byte[] bytes, byte[] buffer, int start, int end) {
+        if (bytes.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void growTerms() {
+        byte[][] oldBytes = termBytes;
+        String[] oldValues = termValues;
+        termBytes = new byte[oldBytes.length * 2][];
+        termValues = new String[oldBytes.length * 2];
+        int mask = termBytes.length - 1;
+        for (int i = 0; i < oldBytes.length; i++) {
+            if (oldBytes[i] != null) {
+                int hash = 1;
+                for (byte b : oldBytes[i]) {
+                    hash = 31 * hash + b;
+                }
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (termBytes[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                termBytes[slot] = oldBytes[i];
+                termValues[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private String decode(byte[] buffer, int start, int end) {
+        return new String(buffer, start, end - start, charset);
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer with bulk copies
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+    }
+}
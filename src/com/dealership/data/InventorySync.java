@@ -0,0 +1,175 @@
+package com.dealership.data;
+
+import com.dealership.metrics.InventoryMetrics;
+import com.dealership.model.Dealership;
+import com.dealership.model.InventoryDiff;
+import com.dealership.model.Vehicle;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+/**
+ * Brings a live Dealership up to date with a newer inventory file in place, instead of
+ * loading the file into a new Dealership. The file is streamed and compared with the
+ * inventory by VIN a batch at a time; only the vehicles that were added, removed or changed
+ * are applied, so indexes and cached state stay warm and the work beyond reading the file
+ * grows with the number of changes, not the size of the lot.
+ * <p>
+ * The changes are applied in one step. If another thread edits the inventory while the file
+ * is being compared, the comparison is redone. When most of the lot differs, loading the
+ * file into a new Dealership is faster.
+ */
+public class InventorySync {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Dealership dealership;
+    private final DealershipFileManager fileManager;
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * Constructor for the InventorySync class
+     *
+     * @param dealership  Inventory to keep up to date
+     * @param fileManager Manager that saves the inventory after a sync, or null to not save
+     */
+    public InventorySync(Dealership dealership, DealershipFileManager fileManager) {
+        this.dealership = dealership;
+        this.fileManager = fileManager;
+    }
+
+    /**
+     * Applies the differences between an inventory file and the live inventory. When the
+     * file manager saves to a different file, only the differences are appended to its
+     * journal. When the incoming file is the manager's own file, already replaced on disk,
+     * the inventory is written out whole so the old journal is not replayed over it.
+     *
+     * @param filePath Inventory file with a header line and vehicle rows, plain or compressed
+     * @return Counts and timings of the sync
+     * @throws IOException If the file cannot be read or has no dealership header
+     */
+    public SyncReport sync(String filePath) throws IOException {
+        long start = System.nanoTime();
+        long metricsStart = InventoryMetrics.start();
+        SyncReport report = new SyncReport(filePath);
+
+        InventoryDiff diff = null;
+        boolean applied = false;
+        while (!applied && report.attempts < MAX_ATTEMPTS) {
+            report.attempts++;
+            long compareStart = System.nanoTime();
+            diff = dealership.diff();
+            DiffHandler handler = new DiffHandler(diff);
+            if (CompressedInventoryFile.isCompressed(filePath)) {
+                try (CompressedInventoryFile file = CompressedInventoryFile.open(filePath)) {
+                    file.parse(handler, true);
+                }
+            } else {
+                try (InputStream in = new FileInputStream(filePath)) {
+                    new InventoryParser(charset, true).parse(in, handler);
+                }
+            }
+            if (handler.header == null) {
+                throw new IOException("No dealership header in " + filePath);
+            }
+            handler.flush();
+            diff.finish();
+            report.rowsRead = handler.rows;
+            report.rejected = handler.rejected;
+            report.compareNanos += System.nanoTime() - compareStart;
+
+            long applyStart = System.nanoTime();
+            applied = diff.apply();
+            report.applyNanos += System.nanoTime() - applyStart;
+            if (applied) {
+                applyHeader(handler.header);
+            }
+        }
+        if (!applied) {
+            throw new ConcurrentModificationException("Inventory kept changing during sync with " + filePath);
+        }
+        report.diff = diff;
+
+        boolean changed = diff.getAdded() + diff.getRemoved() + diff.getUpdated() > 0
+                || dealership.isSnapshotRequired();
+        if (fileManager != null && (changed || isManagedFile(filePath))) {
+            long saveStart = System.nanoTime();
+            if (isManagedFile(filePath)) {
+                // Untracked, the next save rewrites the file and drops the journal
+                dealership.setTrackingChanges(false);
+            }
+            fileManager.saveDealership(dealership);
+            report.saveNanos = System.nanoTime() - saveStart;
+        }
+        report.totalNanos = System.nanoTime() - start;
+        InventoryMetrics.SYNC.record(metricsStart);
+        return report;
+    }
+
+    private void applyHeader(String[] header) {
+        dealership.setName(header[0]);
+        dealership.setAddress(header[1]);
+        dealership.setPhone(header[2]);
+    }
+
+    private boolean isManagedFile(String filePath) {
+        if (fileManager == null) {
+            return false;
+        }
+        Path incoming = Paths.get(filePath).toAbsolutePath().normalize();
+        return incoming.equals(Paths.get(fileManager.getFilePath()).toAbsolutePath().normalize());
+    }
+
+    /**
+     * Feeds parsed rows to the diff in batches
+     */
+    private static class DiffHandler implements InventoryParser.Handler {
+        private final InventoryDiff diff;
+        private final List<Vehicle> batch = new ArrayList<>(BATCH_SIZE);
+        String[] header;
+        int rows;
+        int rejected;
+
+        DiffHandler(InventoryDiff diff) {
+            this.diff = diff;
+        }
+
+        @Override
+        public boolean header(String line) {
+            String[] fields = line.split("\\|");
+            if (fields.length < 3) {
+                return false;
+            }
+            header = new String[]{fields[0].trim(), fields[1].trim(), fields[2].trim()};
+            return true;
+        }
+
+        @Override
+        public void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                            int odometer, double price) {
+            rows++;
+            batch.add(new Vehicle(vin, year, make, model, vehicleType, color, odometer, price));
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void rejected(NumberFormatException e) {
+            rejected++;
+            System.err.println("Error parsing vehicle data: " + e.getMessage());
+        }
+
+        void flush() {
+            diff.compare(batch);
+            batch.clear();
+        }
+    }
+}
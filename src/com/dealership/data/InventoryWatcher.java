@@ -0,0 +1,178 @@
+package com.dealership.data;
+
+import com.dealership.model.Dealership;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Watches the inventory file for changes made by other programs, such as an export from the
+ * dealer management system, and reloads it on a background thread.
+ * <p>
+ * A reloaded inventory is published only once it is fully loaded, by swapping the Dealership
+ * {@link #getDealership()} returns. Searches already running keep the Dealership they started
+ * with and never wait for a reload. A burst of writes is folded into one reload that starts
+ * once the file has been quiet for the debounce delay. The file manager's own saves are
+ * recognized and do not cause a reload. The new file is taken as it is: edits this program
+ * journaled against the old file are not replayed over it, since they could add a VIN the
+ * file already has or undo a newer change. They are moved to
+ * {@code inventory.csv.journal.superseded-<time>} instead, where they can be reviewed.
+ * <p>
+ * Make edits through {@link #edit(Function)}, so that none can fall between loading a new
+ * inventory and publishing it. An edit made while a reload runs waits for it to finish.
+ */
+public class InventoryWatcher implements AutoCloseable {
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private final DealershipFileManager fileManager;
+    private final Path file;
+    // Held while loading and publishing a new inventory, and while editing the current one
+    private final Object editLock = new Object();
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile Dealership dealership;
+    private volatile long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Constructor for the InventoryWatcher class
+     *
+     * @param fileManager Manager of the inventory file to watch
+     * @param dealership  Inventory the manager loaded from the file
+     */
+    public InventoryWatcher(DealershipFileManager fileManager, Dealership dealership) {
+        this.fileManager = fileManager;
+        this.file = Paths.get(fileManager.getFilePath()).toAbsolutePath();
+        this.dealership = dealership;
+    }
+
+    /**
+     * Sets how long the file must go without changes before it is reloaded
+     *
+     * @param debounceMillis Quiet time in milliseconds
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("Debounce delay must not be negative: " + debounceMillis);
+        }
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * @return The most recently loaded inventory
+     */
+    public Dealership getDealership() {
+        return dealership;
+    }
+
+    /**
+     * Runs an edit against the current inventory. No reload can start or publish while it runs.
+     *
+     * @param action Edit to run, given the current inventory
+     * @return The action's result
+     */
+    public <T> T edit(Function<Dealership, T> action) {
+        synchronized (editLock) {
+            return action.apply(dealership);
+        }
+    }
+
+    /**
+     * @return Number of times a changed file has been loaded and published
+     */
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    /**
+     * Starts watching the file on a daemon thread
+     *
+     * @throws IOException If the file's directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        watchService = file.getFileSystem().newWatchService();
+        // Editors and exports often replace the file, so watch its directory for the name
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "inventory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching. A reload already running still finishes.
+     */
+    @Override
+    public synchronized void close() {
+        if (thread == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the inventory watcher: " + e.getMessage());
+        }
+        thread = null;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!touchesFile(watchService.take())) {
+                    continue;
+                }
+                // Wait until the file has gone a full debounce delay without changes
+                long quietAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                long wait;
+                while ((wait = quietAt - System.nanoTime()) > 0) {
+                    WatchKey key = watchService.poll(wait, TimeUnit.NANOSECONDS);
+                    if (key != null && touchesFile(key)) {
+                        quietAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                    }
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        boolean touches = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // An overflow means events were lost, so the file may have changed
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                touches = true;
+            }
+        }
+        key.reset();
+        return touches;
+    }
+
+    private void reload() {
+        synchronized (editLock) {
+            if (!fileManager.isFileChanged()) {
+                return;
+            }
+            Dealership loaded = fileManager.reloadChangedFile();
+            if (loaded == null) {
+                System.err.println("Error reloading " + file + "; keeping the current inventory");
+                return;
+            }
+            dealership = loaded;
+            reloads.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.dealership.data;
+
+import com.dealership.model.Vehicle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads an inventory file by memory-mapping it and parsing line-aligned chunks in parallel.
+ * The header line is read first, chunk results are merged back in file order, and the
+ * merged vehicles are indexed with {@link com.dealership.model.Dealership#addVehicles}.
+ */
+class MappedInventoryLoader {
+    private static final long MIN_CHUNK_SIZE = 4L << 20;
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+    private static final int SCAN_WINDOW = 8 << 10;
+
+    private final ForkJoinPool pool;
+    private final Charset charset;
+    private final boolean shareStrings;
+
+    /**
+     * Constructor for the MappedInventoryLoader class
+     *
+     * @param pool         Pool that parses the chunks
+     * @param charset      Charset of the inventory file
+     * @param shareStrings true to hand out one String instance per distinct text value
+     */
+    MappedInventoryLoader(ForkJoinPool pool, Charset charset, boolean shareStrings) {
+        this.pool = pool;
+        this.charset = charset;
+        this.shareStrings = shareStrings;
+    }
+
+    /**
+     * Loads a file into the Dealership created by the handler's header callback
+     *
+     * @param filePath Inventory file
+     * @param handler  Receives the header and rejected rows; vehicles go to its dealership
+     * @throws IOException If the file cannot be read
+     */
+    void load(String filePath, DealershipFileManager.LoadHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long headerEnd = lineEnd(channel, 0, size);
+            if (headerEnd == 0) {
+                return;
+            }
+            ByteBuffer header = ByteBuffer.allocate((int) headerEnd);
+            readFully(channel, header, 0);
+            if (!handler.header(stripTerminator(header.array()))) {
+                return;
+            }
+
+            List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+            ConcurrentMap<String, String> sharedTerms = shareStrings ? new ConcurrentHashMap<>() : null;
+            long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                    Math.min(MAX_CHUNK_SIZE, (size - headerEnd) / (pool.getParallelism() * 4L) + 1));
+            long start = headerEnd;
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : lineEnd(channel, start + chunkSize, size);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                tasks.add(pool.submit(() -> parse(mapped, sharedTerms)));
+                start = end;
+            }
+
+            merge(tasks, handler, 0);
+        }
+    }
+
+    /**
+     * Joins chunk tasks in submission order, so vehicles keep their file order, and adds
+     * their vehicles to the handler's dealership in one call
+     *
+     * @param tasks    Tasks parsing consecutive parts of a file
+     * @param handler  Receives the rejected rows; vehicles go to its dealership
+     * @param expected Number of vehicles expected, or 0 if not known
+     * @throws IOException If a task failed to read its part of the file
+     */
+    static void merge(List<ForkJoinTask<Chunk>> tasks, DealershipFileManager.LoadHandler handler, int expected)
+            throws IOException {
+        List<Vehicle> vehicles = new ArrayList<>(expected);
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk;
+            try {
+                chunk = task.join();
+            } catch (RuntimeException e) {
+                // The pool may wrap the task's exception more than once
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                }
+                throw e;
+            }
+            vehicles.addAll(chunk.vehicles);
+            for (NumberFormatException e : chunk.rejected) {
+                handler.rejected(e);
+            }
+        }
+        handler.dealership.addVehicles(vehicles);
+    }
+
+    private Chunk parse(MappedByteBuffer buffer, ConcurrentMap<String, String> sharedTerms) {
+        Chunk chunk = new Chunk();
+        InventoryParser parser = new InventoryParser(charset, shareStrings);
+        parser.setSharedTerms(sharedTerms);
+        parser.parseRows(buffer, 0, buffer.limit(), chunk);
+        return chunk;
+    }
+
+    /**
+     * Rows parsed from one chunk, in file order
+     */
+    static class Chunk implements InventoryParser.Handler {
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<NumberFormatException> rejected = new ArrayList<>();
+
+        @Override
+        public boolean header(String line) {
+            return true;
+        }
+
+        @Override
+        public void vehicle(int vin, int year, String make, String model, String vehicleType, String color,
+                            int odometer, double price) {
+            vehicles.add(new Vehicle(vin, year, make, model, vehicleType, color, odometer, price));
+        }
+
+        @Override
+        public void rejected(NumberFormatException e) {
+            rejected.add(e);
+        }
+    }
+
+    // Returns the offset just past the first line terminator at or after position, or size
+    static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+        long pos = position;
+        while (pos < size) {
+            window.clear();
+            int read = channel.read(window, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    return pos + i + 1;
+                }
+                if (b == '\r') {
+                    // Keep both bytes of a CRLF pair in the same chunk
+                    if (i + 1 < read) {
+                        return pos + i + (window.get(i + 1) == '\n' ? 2 : 1);
+                    }
+                    ByteBuffer next = ByteBuffer.allocate(1);
+                    boolean crlf = channel.read(next, pos + i + 1) == 1 && next.get(0) == '\n';
+                    return pos + i + (crlf ? 2 : 1);
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    private String stripTerminator(byte[] line) {
+        int length = line.length;
+        while (length > 0 && (line[length - 1] == '\n' || line[length - 1] == '\r')) {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+}
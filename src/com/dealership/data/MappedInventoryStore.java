@@ -0,0 +1,346 @@
+package com.dealership.data;
+
+import com.dealership.model.Dealership;
+import com.dealership.model.InventoryStore;
+import com.dealership.model.TermDictionary;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only inventory served straight from a memory-mapped {@link BinaryInventoryFile}.
+ * Opening only decodes the header and the string dictionaries; VIN lookups probe the
+ * file's directory and searches scan its columns, so a Vehicle is built only for rows a
+ * caller actually gets back.
+ * <p>
+ * Vehicles returned by this store are detached copies; changing them does not change the file.
+ */
+public class MappedInventoryStore implements InventoryStore {
+    private final String name;
+    private final String address;
+    private final String phone;
+    private final int rowCount;
+    private final IntBuffer vins;
+    private final IntBuffer years;
+    private final IntBuffer odometers;
+    private final DoubleBuffer prices;
+    private final ShortBuffer makes;
+    private final ShortBuffer models;
+    private final ShortBuffer types;
+    private final ShortBuffer colors;
+    private final IntBuffer directory;
+    private final int directoryMask;
+    private final TermDictionary makeDictionary = new TermDictionary();
+    private final TermDictionary modelDictionary = new TermDictionary();
+    private final TermDictionary typeDictionary = new TermDictionary();
+    private final TermDictionary colorDictionary = new TermDictionary();
+
+    private MappedInventoryStore(ByteBuffer file) throws IOException {
+        if (file.limit() < BinaryInventoryFile.HEADER_SIZE || file.getInt(0) != BinaryInventoryFile.MAGIC) {
+            throw new IOException("Not a binary inventory file");
+        }
+        short version = file.getShort(4);
+        if (version != BinaryInventoryFile.VERSION) {
+            throw new IOException("Unsupported binary inventory version " + version);
+        }
+        rowCount = file.getInt(8);
+        if (rowCount < 0 || file.getInt(12) < BinaryInventoryFile.SECTION_COUNT) {
+            throw new IOException("Corrupt binary inventory header");
+        }
+
+        ByteBuffer header = section(file, BinaryInventoryFile.DEALERSHIP, 0);
+        name = readString(header);
+        address = readString(header);
+        phone = readString(header);
+        vins = section(file, BinaryInventoryFile.VINS, 4L * rowCount).asIntBuffer();
+        years = section(file, BinaryInventoryFile.YEARS, 4L * rowCount).asIntBuffer();
+        odometers = section(file, BinaryInventoryFile.ODOMETERS, 4L * rowCount).asIntBuffer();
+        prices = section(file, BinaryInventoryFile.PRICES, 8L * rowCount).asDoubleBuffer();
+        makes = section(file, BinaryInventoryFile.MAKES, 2L * rowCount).asShortBuffer();
+        models = section(file, BinaryInventoryFile.MODELS, 2L * rowCount).asShortBuffer();
+        types = section(file, BinaryInventoryFile.TYPES, 2L * rowCount).asShortBuffer();
+        colors = section(file, BinaryInventoryFile.COLORS, 2L * rowCount).asShortBuffer();
+
+        ByteBuffer dictionaries = section(file, BinaryInventoryFile.DICTIONARY, 0);
+        for (TermDictionary dictionary : new TermDictionary[]{makeDictionary, modelDictionary, typeDictionary,
+                colorDictionary}) {
+            int codes = dictionaries.getInt();
+            for (int code = 1; code < codes; code++) {
+                if (dictionary.encode(readString(dictionaries)) != code) {
+                    throw new IOException("Corrupt binary inventory dictionary");
+                }
+            }
+        }
+
+        ByteBuffer directorySection = section(file, BinaryInventoryFile.DIRECTORY, 4);
+        int capacity = directorySection.getInt();
+        if (Integer.bitCount(capacity) != 1 || directorySection.remaining() < 8L * capacity) {
+            throw new IOException("Corrupt binary inventory directory");
+        }
+        directory = directorySection.slice().asIntBuffer();
+        directoryMask = capacity - 1;
+    }
+
+    /**
+     * Maps a binary inventory snapshot
+     *
+     * @param path Snapshot file written by {@link BinaryInventoryFile}
+     * @return A read-only store over the file
+     * @throws IOException If the file cannot be read or is not a supported snapshot
+     */
+    public static MappedInventoryStore open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary inventory file too large: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedInventoryStore(mapped);
+        } catch (RuntimeException e) {
+            // Offsets and lengths that point outside the file
+            throw new IOException("Corrupt binary inventory file " + path, e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    /**
+     * Builds an editable, fully indexed Dealership holding every vehicle in the file
+     *
+     * @return A new Dealership
+     */
+    public Dealership toDealership() {
+        Dealership dealership = new Dealership(name, address, phone);
+        dealership.addVehicles(getAllVehicles());
+        return dealership;
+    }
+
+    /**
+     * Not supported; the store is read-only
+     */
+    @Override
+    public void addVehicle(Vehicle vehicle) {
+        throw new UnsupportedOperationException("Binary inventory snapshots are read-only");
+    }
+
+    /**
+     * Not supported; the store is read-only
+     */
+    @Override
+    public Vehicle removeVehicle(int vin) {
+        throw new UnsupportedOperationException("Binary inventory snapshots are read-only");
+    }
+
+    @Override
+    public Vehicle findByVin(int vin) {
+        int row = rowOf(vin);
+        return row < 0 ? null : vehicleAt(row);
+    }
+
+    @Override
+    public boolean containsVin(int vin) {
+        return rowOf(vin) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        return scan(row -> true, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByPrice(double min, double max) {
+        return scan(row -> prices.get(row) >= min && prices.get(row) <= max, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMakeModel(String make, String model) {
+        boolean anyMake = make == null || make.isEmpty();
+        boolean anyModel = model == null || model.isEmpty();
+        if (anyMake && anyModel) {
+            return getAllVehicles();
+        }
+        int makeGroup = anyMake ? -1 : makeDictionary.findFoldGroup(make);
+        int modelGroup = anyModel ? -1 : modelDictionary.findFoldGroup(model);
+        if ((!anyMake && makeGroup < 0) || (!anyModel && modelGroup < 0)) {
+            return new ArrayList<>();
+        }
+        return scan(row -> (anyMake || groupOf(makeDictionary, makes, row) == makeGroup)
+                && (anyModel || groupOf(modelDictionary, models, row) == modelGroup), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByYear(int min, int max) {
+        return scan(row -> years.get(row) >= min && years.get(row) <= max, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByColor(String color) {
+        return termMatches(colors, colorDictionary, color);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMileage(int min, int max) {
+        return scan(row -> odometers.get(row) >= min && odometers.get(row) <= max, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByType(String type) {
+        return termMatches(types, typeDictionary, type);
+    }
+
+    @Override
+    public List<Vehicle> search(VehicleQuery query) {
+        int makeGroup = groupFor(makeDictionary, query.getMake());
+        int modelGroup = groupFor(modelDictionary, query.getModel());
+        int colorGroup = groupFor(colorDictionary, query.getColor());
+        int typeGroup = groupFor(typeDictionary, query.getVehicleType());
+        if (makeGroup == -1 || modelGroup == -1 || colorGroup == -1 || typeGroup == -1) {
+            return new ArrayList<>();
+        }
+
+        boolean byPrice = query.hasPriceRange();
+        double minPrice = byPrice ? query.getMinPrice() : 0;
+        double maxPrice = byPrice ? query.getMaxPrice() : 0;
+        boolean byYear = query.hasYearRange();
+        int minYear = byYear ? query.getMinYear() : 0;
+        int maxYear = byYear ? query.getMaxYear() : 0;
+        boolean byMileage = query.hasMileageRange();
+        int minMileage = byMileage ? query.getMinMileage() : 0;
+        int maxMileage = byMileage ? query.getMaxMileage() : 0;
+        int stopAt = query.getSort() == null && query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+
+        List<Vehicle> result = scan(row -> {
+            if (byPrice && !(prices.get(row) >= minPrice && prices.get(row) <= maxPrice)) {
+                return false;
+            }
+            if (byYear && (years.get(row) < minYear || years.get(row) > maxYear)) {
+                return false;
+            }
+            if (byMileage && (odometers.get(row) < minMileage || odometers.get(row) > maxMileage)) {
+                return false;
+            }
+            return (makeGroup < 0 || groupOf(makeDictionary, makes, row) == makeGroup) &&
+                    (modelGroup < 0 || groupOf(modelDictionary, models, row) == modelGroup) &&
+                    (colorGroup < 0 || groupOf(colorDictionary, colors, row) == colorGroup) &&
+                    (typeGroup < 0 || groupOf(typeDictionary, types, row) == typeGroup);
+        }, stopAt);
+
+        if (query.getSort() != null) {
+            result.sort(query.getSort().comparator());
+            if (query.getLimit() > 0 && result.size() > query.getLimit()) {
+                result = new ArrayList<>(result.subList(0, query.getLimit()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds a Vehicle from a stored row
+     *
+     * @param row Row index
+     * @return A detached Vehicle holding the row's values
+     */
+    Vehicle vehicleAt(int row) {
+        return new Vehicle(vins.get(row), years.get(row),
+                makeDictionary.decode(makes.get(row) & 0xFFFF), modelDictionary.decode(models.get(row) & 0xFFFF),
+                typeDictionary.decode(types.get(row) & 0xFFFF), colorDictionary.decode(colors.get(row) & 0xFFFF),
+                odometers.get(row), prices.get(row));
+    }
+
+    /**
+     * Same hash as the in-memory VIN index, so both spread VINs alike
+     */
+    static int mix(int vin) {
+        int h = vin * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int rowOf(int vin) {
+        int i = mix(vin) & directoryMask;
+        while (true) {
+            int row = directory.get(2 * i + 1);
+            if (row < 0) {
+                return -1;
+            }
+            if (directory.get(2 * i) == vin) {
+                return row;
+            }
+            i = (i + 1) & directoryMask;
+        }
+    }
+
+    private List<Vehicle> scan(IntPredicate matches, int stopAt) {
+        List<Vehicle> result = new ArrayList<>();
+        for (int row = 0; row < rowCount && result.size() < stopAt; row++) {
+            if (matches.test(row)) {
+                result.add(vehicleAt(row));
+            }
+        }
+        return result;
+    }
+
+    private List<Vehicle> termMatches(ShortBuffer column, TermDictionary dictionary, String term) {
+        int group = dictionary.findFoldGroup(term);
+        if (group < 0) {
+            return new ArrayList<>();
+        }
+        return scan(row -> groupOf(dictionary, column, row) == group, Integer.MAX_VALUE);
+    }
+
+    private static int groupOf(TermDictionary dictionary, ShortBuffer column, int row) {
+        return dictionary.foldGroupOf(column.get(row) & 0xFFFF);
+    }
+
+    // -2 means the criterion is not set, -1 that no stored value can match it
+    private static int groupFor(TermDictionary dictionary, String term) {
+        return term == null ? -2 : dictionary.findFoldGroup(term);
+    }
+
+    // Returns a big-endian view of a section, positioned at its start and at least minLength long
+    private static ByteBuffer section(ByteBuffer file, int section, long minLength) throws IOException {
+        long offset = file.getLong(16 + 8 * section);
+        if (offset < BinaryInventoryFile.HEADER_SIZE || offset + minLength > file.limit()) {
+            throw new IOException("Corrupt binary inventory section " + section);
+        }
+        ByteBuffer view = file.duplicate();
+        view.position((int) offset);
+        return view.slice();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
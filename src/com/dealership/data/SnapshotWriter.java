@@ -0,0 +1,112 @@
+package com.dealership.data;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file so readers only ever see the old contents or the complete new contents.
+ * Text goes to a temp file in the target's directory; {@link #commit(Path)} optionally
+ * fsyncs it and then renames it over the target. Closing without committing deletes the
+ * temp file and leaves the target alone.
+ */
+final class SnapshotWriter implements AutoCloseable {
+    private final Path tempPath;
+    private final boolean sync;
+    private final FileOutputStream out;
+    private final BufferedWriter writer;
+    private boolean committed;
+
+    /**
+     * Constructor for the SnapshotWriter class
+     *
+     * @param tempPath Temp file to write, replaced if it exists
+     * @param charset  Charset of the file
+     * @param sync     true to force the file and its directory to disk on commit
+     * @throws IOException If the temp file cannot be created
+     */
+    SnapshotWriter(Path tempPath, Charset charset, boolean sync) throws IOException {
+        this.tempPath = tempPath;
+        this.sync = sync;
+        this.out = new FileOutputStream(tempPath.toFile());
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, charset));
+    }
+
+    Writer writer() {
+        return writer;
+    }
+
+    /**
+     * @return The temp file as bytes, for formats that are not text; not to be mixed with {@link #writer()}
+     */
+    OutputStream stream() {
+        return out;
+    }
+
+    /**
+     * Finishes the temp file and renames it to the target
+     *
+     * @param target File to replace
+     * @return Length of the file in bytes
+     * @throws IOException If the file cannot be written or renamed
+     */
+    long commit(Path target) throws IOException {
+        writer.flush();
+        long length = out.getChannel().size();
+        if (sync) {
+            out.getChannel().force(true);
+        }
+        writer.close();
+        move(tempPath, target);
+        committed = true;
+        if (sync) {
+            syncDirectory(target);
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            writer.close();
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Renames a file over another, atomically where the file system allows it
+     */
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces a rename in the file's directory to disk. Not every platform lets a directory
+     * be opened, so failures are ignored; the rename has still happened.
+     */
+    static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+}
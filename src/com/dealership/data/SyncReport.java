@@ -0,0 +1,85 @@
+package com.dealership.data;
+
+import com.dealership.model.InventoryDiff;
+
+/**
+ * Counts and timings of one {@link InventorySync} run
+ */
+public final class SyncReport {
+    private final String filePath;
+    // Filled in by the sync as it goes
+    InventoryDiff diff;
+    int rowsRead;
+    int rejected;
+    int attempts;
+    long compareNanos;
+    long applyNanos;
+    long saveNanos;
+    long totalNanos;
+
+    SyncReport(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * @return The applied diff, with the number of vehicles added, removed, updated and unchanged
+     */
+    public InventoryDiff getDiff() {
+        return diff;
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return Rows skipped because of a malformed number
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return Times the file was compared; more than one if the inventory was edited meanwhile
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return Time spent reading the file and comparing it with the inventory
+     */
+    public long getCompareNanos() {
+        return compareNanos;
+    }
+
+    /**
+     * @return Time spent applying the changes to the inventory
+     */
+    public long getApplyNanos() {
+        return applyNanos;
+    }
+
+    /**
+     * @return Time the save took, or 0 if nothing was saved
+     */
+    public long getSaveNanos() {
+        return saveNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Synced %d rows from %s in %.2f s: %d added, %d removed, %d updated, %d unchanged%n"
+                        + "Compare: %.1f ms, apply: %.1f ms, save: %.1f ms",
+                rowsRead, filePath, totalNanos / 1e9, diff.getAdded(), diff.getRemoved(), diff.getUpdated(),
+                diff.getUnchanged(), compareNanos / 1e6, applyNanos / 1e6, saveNanos / 1e6);
+    }
+}
@@ -0,0 +1,309 @@
+package com.dealership.group;
+
+import com.dealership.data.DealershipFileManager;
+import com.dealership.metrics.LatencyHistogram;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A group of dealerships searched as one inventory. Each dealership is a shard loaded from
+ * its own inventory file through its own {@link DealershipFileManager}.
+ * <p>
+ * Shards load in parallel in the background. A search fans out to every loaded shard at
+ * once and merges their results, so a shard that is still loading, or failed to load,
+ * never holds up the others; the search result names the shards it had to skip.
+ */
+public class DealershipGroup {
+    private final List<Shard> shards;
+    private final ExecutorService executor;
+    private final CountDownLatch loading;
+
+    /**
+     * Constructor for the DealershipGroup class. Starts loading every shard in the background.
+     *
+     * @param inventoryPaths Inventory file of each dealership
+     */
+    public DealershipGroup(List<String> inventoryPaths) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "dealership-group-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loading = new CountDownLatch(inventoryPaths.size());
+        List<Shard> created = new ArrayList<>(inventoryPaths.size());
+        for (String path : inventoryPaths) {
+            created.add(new Shard(path));
+        }
+        this.shards = Collections.unmodifiableList(created);
+        for (Shard shard : shards) {
+            executor.execute(() -> {
+                try {
+                    shard.load();
+                } finally {
+                    loading.countDown();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Every shard, in the order their files were given
+     */
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Finds a shard by its inventory file
+     *
+     * @param path Inventory file the shard was created with
+     * @return The shard, or null if none has this path
+     */
+    public Shard getShard(String path) {
+        for (Shard shard : shards) {
+            if (shard.path.equals(path)) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until every shard has loaded or failed
+     *
+     * @param timeout Longest time to wait
+     * @param unit    Unit of the timeout
+     * @return true if no shard is still loading
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitLoaded(long timeout, TimeUnit unit) throws InterruptedException {
+        return loading.await(timeout, unit);
+    }
+
+    /**
+     * @return Vehicles in every loaded shard
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            if (shard.status == Status.READY) {
+                size += shard.dealership.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Runs a query on every loaded shard at once and merges the results. Sorted results are
+     * merged in sort order, with ties in shard order; unsorted results are listed shard by
+     * shard. The query's limit applies to the merged result.
+     *
+     * @param query Search criteria, sort order and limit
+     * @return The merged vehicles with the shard each came from
+     */
+    public GroupSearchResult search(VehicleQuery query) {
+        List<Shard> searched = new ArrayList<>(shards.size());
+        List<String> skipped = new ArrayList<>();
+        List<CompletableFuture<List<Vehicle>>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            if (shard.status != Status.READY) {
+                skipped.add(shard.path);
+                continue;
+            }
+            searched.add(shard);
+            futures.add(CompletableFuture.supplyAsync(() -> shard.search(query), executor));
+        }
+
+        List<List<Vehicle>> results = new ArrayList<>(futures.size());
+        List<Shard> answered = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+                answered.add(searched.get(i));
+            } catch (CompletionException e) {
+                System.err.println("Error searching " + searched.get(i).path + ": " + e.getCause());
+                skipped.add(searched.get(i).path);
+            }
+        }
+        return merge(query, answered, results, skipped);
+    }
+
+    private static GroupSearchResult merge(VehicleQuery query, List<Shard> answered, List<List<Vehicle>> results,
+                                           List<String> skipped) {
+        int total = 0;
+        for (List<Vehicle> result : results) {
+            total += result.size();
+        }
+        int limit = query.getLimit() > 0 ? Math.min(query.getLimit(), total) : total;
+        List<Vehicle> vehicles = new ArrayList<>(limit);
+        List<String> sources = new ArrayList<>(limit);
+
+        if (query.getSort() == null) {
+            for (int i = 0; i < results.size() && vehicles.size() < limit; i++) {
+                for (Vehicle vehicle : results.get(i)) {
+                    if (vehicles.size() == limit) {
+                        break;
+                    }
+                    vehicles.add(vehicle);
+                    sources.add(answered.get(i).path);
+                }
+            }
+            return new GroupSearchResult(vehicles, sources, skipped);
+        }
+
+        // Each shard's result is already sorted, so repeatedly take the smallest head
+        Comparator<Vehicle> order = query.getSort().comparator();
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> {
+            int compared = order.compare(results.get(a[0]).get(a[1]), results.get(b[0]).get(b[1]));
+            return compared != 0 ? compared : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        while (vehicles.size() < limit) {
+            int[] head = heads.poll();
+            List<Vehicle> result = results.get(head[0]);
+            vehicles.add(result.get(head[1]));
+            sources.add(answered.get(head[0]).path);
+            if (++head[1] < result.size()) {
+                heads.add(head);
+            }
+        }
+        return new GroupSearchResult(vehicles, sources, skipped);
+    }
+
+    /**
+     * Formats each shard's status, size, load time and search latency percentiles
+     *
+     * @return A multi-line table
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %-8s %10s %10s %10s %10s %10s %10s%n", "Shard", "status", "vehicles",
+                "load ms", "searches", "p50 ms", "p99 ms", "max ms"));
+        for (Shard shard : shards) {
+            LatencyHistogram latency = shard.searchLatency;
+            sb.append(String.format("%-32s %-8s %10d %10.1f %10d %10.3f %10.3f %10.3f%n", shard.path, shard.status,
+                    shard.status == Status.READY ? shard.dealership.size() : 0, shard.loadNanos / 1e6,
+                    latency.getCount(), latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6, latency.getMaxNanos() / 1e6));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stops the group's threads and waits for every shard's queued saves. A shard still
+     * loading is abandoned.
+     */
+    public void close() {
+        executor.shutdownNow();
+        for (Shard shard : shards) {
+            if (shard.status == Status.READY) {
+                shard.fileManager.flush();
+            }
+        }
+    }
+
+    /**
+     * Load state of a shard
+     */
+    public enum Status {
+        LOADING, READY, FAILED
+    }
+
+    /**
+     * One dealership of the group with its file manager, load outcome and search latencies
+     */
+    public static final class Shard {
+        private final String path;
+        private final DealershipFileManager fileManager;
+        private final LatencyHistogram searchLatency = new LatencyHistogram();
+        // Written once by the loading thread before status becomes READY
+        private Dealership dealership;
+        private volatile Status status = Status.LOADING;
+        private volatile long loadNanos;
+
+        private Shard(String path) {
+            this.path = path;
+            this.fileManager = new DealershipFileManager(path);
+            // Searches from many callers can run on a shard at the same time as an edit
+            fileManager.setConcurrentAccess(true);
+        }
+
+        private void load() {
+            long start = System.nanoTime();
+            Dealership loaded = null;
+            try {
+                loaded = fileManager.getDealership();
+            } catch (RuntimeException e) {
+                System.err.println("Error loading " + path + ": " + e);
+            }
+            loadNanos = System.nanoTime() - start;
+            if (loaded == null) {
+                status = Status.FAILED;
+                return;
+            }
+            dealership = loaded;
+            status = Status.READY;
+        }
+
+        private List<Vehicle> search(VehicleQuery query) {
+            long start = System.nanoTime();
+            try {
+                return dealership.search(query);
+            } finally {
+                searchLatency.record(System.nanoTime() - start);
+            }
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return The shard's dealership, or null unless the status is READY
+         */
+        public Dealership getDealership() {
+            return status == Status.READY ? dealership : null;
+        }
+
+        /**
+         * @return The file manager to save this shard's dealership with
+         */
+        public DealershipFileManager getFileManager() {
+            return fileManager;
+        }
+
+        /**
+         * @return Time the load took, or 0 while loading
+         */
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        public LatencyHistogram getSearchLatency() {
+            return searchLatency;
+        }
+    }
+}
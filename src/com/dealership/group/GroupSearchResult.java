@@ -0,0 +1,54 @@
+package com.dealership.group;
+
+import com.dealership.model.Vehicle;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Merged result of a {@link DealershipGroup} search
+ */
+public final class GroupSearchResult {
+    private final List<Vehicle> vehicles;
+    private final List<String> sources;
+    private final List<String> skippedShards;
+
+    /**
+     * Constructor for the GroupSearchResult class
+     *
+     * @param vehicles      Matching vehicles in result order
+     * @param sources       Inventory file of the shard each vehicle came from
+     * @param skippedShards Shards that were loading, failed to load or failed the search
+     */
+    GroupSearchResult(List<Vehicle> vehicles, List<String> sources, List<String> skippedShards) {
+        this.vehicles = Collections.unmodifiableList(vehicles);
+        this.sources = Collections.unmodifiableList(sources);
+        this.skippedShards = Collections.unmodifiableList(skippedShards);
+    }
+
+    public List<Vehicle> getVehicles() {
+        return vehicles;
+    }
+
+    /**
+     * @param index Position of a vehicle in {@link #getVehicles()}
+     * @return Inventory file of the shard the vehicle came from
+     */
+    public String getSource(int index) {
+        return sources.get(index);
+    }
+
+    /**
+     * @return Inventory files of the shards not included in this result
+     */
+    public List<String> getSkippedShards() {
+        return skippedShards;
+    }
+
+    /**
+     * @return true if every shard of the group answered
+     */
+    public boolean isComplete() {
+        return skippedShards.isEmpty();
+    }
+}
@@ -0,0 +1,271 @@
+package com.dealership.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Counters and latency histograms for inventory queries, edits, loads and saves.
+ * <p>
+ * Disabled by default. While disabled, {@link #start()} returns 0 and recording against a
+ * 0 start returns at once, so an instrumented call costs one volatile read. Instrumented
+ * code follows one pattern:
+ * <pre>
+ * long start = InventoryMetrics.start();
+ * ...
+ * InventoryMetrics.SEARCH.record(start);
+ * </pre>
+ */
+public final class InventoryMetrics {
+    private static final String OBJECT_NAME = "com.dealership:type=InventoryMetrics";
+    private static final List<Timer> TIMERS = new CopyOnWriteArrayList<>();
+    private static final List<Counter> COUNTERS = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean enabled;
+    private static boolean registered;
+
+    public static final Timer GET_ALL_VEHICLES = new Timer("getAllVehicles");
+    public static final Timer GET_BY_PRICE = new Timer("getVehiclesByPrice");
+    public static final Timer GET_BY_MAKE_MODEL = new Timer("getVehiclesByMakeModel");
+    public static final Timer GET_BY_YEAR = new Timer("getVehiclesByYear");
+    public static final Timer GET_BY_COLOR = new Timer("getVehiclesByColor");
+    public static final Timer GET_BY_MILEAGE = new Timer("getVehiclesByMileage");
+    public static final Timer GET_BY_TYPE = new Timer("getVehiclesByType");
+    public static final Timer SEARCH = new Timer("search");
+    public static final Timer PAGE = new Timer("page");
+    public static final Timer FIND_BY_VIN = new Timer("findByVin");
+    public static final Timer ADD_VEHICLE = new Timer("addVehicle");
+    public static final Timer REMOVE_VEHICLE = new Timer("removeVehicle");
+    public static final Timer LOAD = new Timer("load");
+    public static final Timer IMPORT = new Timer("import");
+    public static final Timer SYNC = new Timer("sync");
+    public static final Timer SAVE_JOURNAL = new Timer("saveJournal");
+    public static final Timer SAVE_SNAPSHOT = new Timer("saveSnapshot");
+
+    public static final Counter ROWS_LOADED = new Counter("rowsLoaded");
+    public static final Counter ROWS_REJECTED = new Counter("rowsRejected");
+    public static final Counter BYTES_WRITTEN = new Counter("bytesWritten");
+    public static final Counter SAVE_FAILURES = new Counter("saveFailures");
+
+    private InventoryMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Values recorded so far are kept.
+     *
+     * @param enabled true to record
+     */
+    public static void setEnabled(boolean enabled) {
+        InventoryMetrics.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation
+     *
+     * @return The current time, or 0 while metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Clears every timer and counter
+     */
+    public static void reset() {
+        for (Timer timer : TIMERS) {
+            timer.histogram.reset();
+        }
+        for (Counter counter : COUNTERS) {
+            counter.adder.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, once
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("Error registering inventory metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats every operation that was called, with its latency percentiles, followed by
+     * the load and save totals
+     *
+     * @return A multi-line table
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %10s %10s %10s %10s %10s %10s%n", "Operation", "calls", "mean ms",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Timer timer : TIMERS) {
+            LatencyHistogram histogram = timer.histogram;
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-24s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", timer.name,
+                    histogram.getCount(), histogram.getMeanNanos() / 1e6,
+                    histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxNanos() / 1e6));
+        }
+        double loadSeconds = LOAD.histogram.getTotalNanos() / 1e9;
+        sb.append(String.format("Rows loaded: %d (%.0f rows/s), rejected: %d%n", ROWS_LOADED.get(),
+                loadSeconds > 0 ? ROWS_LOADED.get() / loadSeconds : 0, ROWS_REJECTED.get()));
+        sb.append(String.format("Bytes written: %d, failed saves: %d%n", BYTES_WRITTEN.get(), SAVE_FAILURES.get()));
+        if (!enabled) {
+            sb.append("Metrics are disabled").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Latency histogram for one operation
+     */
+    public static final class Timer {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(String name) {
+            this.name = name;
+            TIMERS.add(this);
+        }
+
+        /**
+         * Records the time since {@code start}
+         *
+         * @param start Value returned by {@link InventoryMetrics#start()}
+         */
+        public void record(long start) {
+            if (start != 0) {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    /**
+     * Running total that only counts while metrics are enabled
+     */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder adder = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+            COUNTERS.add(this);
+        }
+
+        public void add(long amount) {
+            if (enabled) {
+                adder.add(amount);
+            }
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final class Bean implements InventoryMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return InventoryMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            InventoryMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Long> getCallCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Timer timer : TIMERS) {
+                counts.put(timer.name, timer.histogram.getCount());
+            }
+            return counts;
+        }
+
+        @Override
+        public Map<String, Double> getMeanMillis() {
+            return millis(histogram -> histogram.getMeanNanos());
+        }
+
+        @Override
+        public Map<String, Double> getP50Millis() {
+            return millis(histogram -> histogram.getValueAtPercentile(50));
+        }
+
+        @Override
+        public Map<String, Double> getP99Millis() {
+            return millis(histogram -> histogram.getValueAtPercentile(99));
+        }
+
+        @Override
+        public Map<String, Double> getP999Millis() {
+            return millis(histogram -> histogram.getValueAtPercentile(99.9));
+        }
+
+        @Override
+        public Map<String, Double> getMaxMillis() {
+            return millis(histogram -> histogram.getMaxNanos());
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            for (Counter counter : COUNTERS) {
+                counters.put(counter.name, counter.get());
+            }
+            return counters;
+        }
+
+        @Override
+        public String getReport() {
+            return report();
+        }
+
+        @Override
+        public void reset() {
+            InventoryMetrics.reset();
+        }
+
+        private static Map<String, Double> millis(ToDoubleFunction<LatencyHistogram> nanos) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (Timer timer : TIMERS) {
+                values.put(timer.name, nanos.applyAsDouble(timer.histogram) / 1e6);
+            }
+            return values;
+        }
+    }
+}
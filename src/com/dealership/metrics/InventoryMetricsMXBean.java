@@ -0,0 +1,40 @@
+package com.dealership.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link InventoryMetrics}, registered as {@code com.dealership:type=InventoryMetrics}.
+ * Latency maps are keyed by operation name, such as {@code search} or {@code saveJournal}.
+ */
+public interface InventoryMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return Calls recorded per operation
+     */
+    Map<String, Long> getCallCounts();
+
+    Map<String, Double> getMeanMillis();
+
+    Map<String, Double> getP50Millis();
+
+    Map<String, Double> getP99Millis();
+
+    Map<String, Double> getP999Millis();
+
+    Map<String, Double> getMaxMillis();
+
+    /**
+     * @return Rows loaded and rejected, bytes written and failed saves
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return The same table the user interface's stats command prints
+     */
+    String getReport();
+
+    void reset();
+}
@@ -0,0 +1,352 @@
+package com.dealership.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Inventory kept as one primitive array per field instead of one object per vehicle.
+ * Text fields are dictionary-encoded into unsigned short codes, so a row costs 28 bytes
+ * of column data and every search is a tight loop over a few arrays.
+ * <p>
+ * Vehicles returned by this store are detached copies built on demand; changing them
+ * does not change the stored row.
+ */
+public class ColumnarInventoryStore implements InventoryStore {
+    private int[] vins;
+    private int[] years;
+    private int[] odometers;
+    private double[] prices;
+    private short[] makes;
+    private short[] models;
+    private short[] types;
+    private short[] colors;
+    private final TermDictionary makeDictionary = new TermDictionary();
+    private final TermDictionary modelDictionary = new TermDictionary();
+    private final TermDictionary typeDictionary = new TermDictionary();
+    private final TermDictionary colorDictionary = new TermDictionary();
+
+    // Removed rows are cleared here and dropped by the next compaction
+    private BitSet live = new BitSet();
+    private int rowCount;
+    private int size;
+    private VinIndex vinIndex;
+    private int shadowedVins;
+
+    /**
+     * Constructor for the ColumnarInventoryStore class
+     */
+    public ColumnarInventoryStore() {
+        this(16);
+    }
+
+    /**
+     * Constructor for the ColumnarInventoryStore class
+     *
+     * @param expectedSize Number of vehicles to allocate room for up front
+     */
+    public ColumnarInventoryStore(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        vins = new int[capacity];
+        years = new int[capacity];
+        odometers = new int[capacity];
+        prices = new double[capacity];
+        makes = new short[capacity];
+        models = new short[capacity];
+        types = new short[capacity];
+        colors = new short[capacity];
+        vinIndex = new VinIndex(capacity);
+    }
+
+    @Override
+    public void addVehicle(Vehicle vehicle) {
+        addRow(vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice());
+    }
+
+    /**
+     * Appends a vehicle row without creating a Vehicle object
+     *
+     * @param vin         Vehicle Identification Number
+     * @param year        Year the vehicle was manufactured
+     * @param make        Make of the vehicle
+     * @param model       Model of the vehicle
+     * @param vehicleType Type of vehicle (car, truck, SUV, van)
+     * @param color       Color of the vehicle
+     * @param odometer    Current odometer reading
+     * @param price       Price of the vehicle
+     */
+    public void addRow(int vin, int year, String make, String model, String vehicleType, String color,
+                       int odometer, double price) {
+        if (rowCount == vins.length) {
+            grow(rowCount * 2);
+        }
+        int row = rowCount++;
+        vins[row] = vin;
+        years[row] = year;
+        odometers[row] = odometer;
+        prices[row] = price;
+        makes[row] = (short) makeDictionary.encode(make);
+        models[row] = (short) modelDictionary.encode(model);
+        types[row] = (short) typeDictionary.encode(vehicleType);
+        colors[row] = (short) colorDictionary.encode(color);
+        live.set(row);
+        size++;
+        indexVin(row);
+    }
+
+    @Override
+    public Vehicle removeVehicle(int vin) {
+        int row = vinIndex.get(vin);
+        if (row < 0) {
+            return null;
+        }
+        Vehicle vehicle = vehicleAt(row);
+        if (shadowedVins > 0 && promoteDuplicate(vin, row)) {
+            shadowedVins--;
+        } else {
+            vinIndex.remove(vin);
+        }
+        live.clear(row);
+        size--;
+        if (rowCount >= 64 && size * 2 <= rowCount) {
+            compact();
+        }
+        return vehicle;
+    }
+
+    @Override
+    public Vehicle findByVin(int vin) {
+        int row = vinIndex.get(vin);
+        return row < 0 ? null : vehicleAt(row);
+    }
+
+    @Override
+    public boolean containsVin(int vin) {
+        return vinIndex.get(vin) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        List<Vehicle> result = new ArrayList<>(size);
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            result.add(vehicleAt(row));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByPrice(double min, double max) {
+        List<Vehicle> result = new ArrayList<>();
+        double[] prices = this.prices;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            double price = prices[row];
+            if (price >= min && price <= max) {
+                result.add(vehicleAt(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMakeModel(String make, String model) {
+        boolean anyMake = make == null || make.isEmpty();
+        boolean anyModel = model == null || model.isEmpty();
+        if (anyMake && anyModel) {
+            return getAllVehicles();
+        }
+        int makeGroup = anyMake ? -1 : makeDictionary.findFoldGroup(make);
+        int modelGroup = anyModel ? -1 : modelDictionary.findFoldGroup(model);
+        if ((!anyMake && makeGroup < 0) || (!anyModel && modelGroup < 0)) {
+            return new ArrayList<>();
+        }
+
+        List<Vehicle> result = new ArrayList<>();
+        int[] makeGroups = makeDictionary.foldGroups();
+        int[] modelGroups = modelDictionary.foldGroups();
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            if ((anyMake || makeGroups[makes[row] & 0xFFFF] == makeGroup) &&
+                    (anyModel || modelGroups[models[row] & 0xFFFF] == modelGroup)) {
+                result.add(vehicleAt(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByYear(int min, int max) {
+        return intRange(years, min, max);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByColor(String color) {
+        return termMatches(colors, colorDictionary, color);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMileage(int min, int max) {
+        return intRange(odometers, min, max);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByType(String type) {
+        return termMatches(types, typeDictionary, type);
+    }
+
+    @Override
+    public List<Vehicle> search(VehicleQuery query) {
+        int makeGroup = groupFor(makeDictionary, query.getMake());
+        int modelGroup = groupFor(modelDictionary, query.getModel());
+        int colorGroup = groupFor(colorDictionary, query.getColor());
+        int typeGroup = groupFor(typeDictionary, query.getVehicleType());
+        if (makeGroup == -1 || modelGroup == -1 || colorGroup == -1 || typeGroup == -1) {
+            return new ArrayList<>();
+        }
+
+        boolean byPrice = query.hasPriceRange();
+        double minPrice = byPrice ? query.getMinPrice() : 0;
+        double maxPrice = byPrice ? query.getMaxPrice() : 0;
+        boolean byYear = query.hasYearRange();
+        int minYear = byYear ? query.getMinYear() : 0;
+        int maxYear = byYear ? query.getMaxYear() : 0;
+        boolean byMileage = query.hasMileageRange();
+        int minMileage = byMileage ? query.getMinMileage() : 0;
+        int maxMileage = byMileage ? query.getMaxMileage() : 0;
+        int[] makeGroups = makeDictionary.foldGroups();
+        int[] modelGroups = modelDictionary.foldGroups();
+        int[] colorGroups = colorDictionary.foldGroups();
+        int[] typeGroups = typeDictionary.foldGroups();
+        int stopAt = query.getSort() == null && query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+
+        List<Vehicle> result = new ArrayList<>();
+        for (int row = live.nextSetBit(0); row >= 0 && result.size() < stopAt; row = live.nextSetBit(row + 1)) {
+            if (byPrice && !(prices[row] >= minPrice && prices[row] <= maxPrice)) {
+                continue;
+            }
+            if (byYear && (years[row] < minYear || years[row] > maxYear)) {
+                continue;
+            }
+            if (byMileage && (odometers[row] < minMileage || odometers[row] > maxMileage)) {
+                continue;
+            }
+            if ((makeGroup >= 0 && makeGroups[makes[row] & 0xFFFF] != makeGroup) ||
+                    (modelGroup >= 0 && modelGroups[models[row] & 0xFFFF] != modelGroup) ||
+                    (colorGroup >= 0 && colorGroups[colors[row] & 0xFFFF] != colorGroup) ||
+                    (typeGroup >= 0 && typeGroups[types[row] & 0xFFFF] != typeGroup)) {
+                continue;
+            }
+            result.add(vehicleAt(row));
+        }
+
+        if (query.getSort() != null) {
+            result.sort(query.getSort().comparator());
+            if (query.getLimit() > 0 && result.size() > query.getLimit()) {
+                result = new ArrayList<>(result.subList(0, query.getLimit()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds a Vehicle from a stored row
+     *
+     * @param row Row index
+     * @return A detached Vehicle holding the row's values
+     */
+    protected Vehicle vehicleAt(int row) {
+        return new Vehicle(vins[row], years[row],
+                makeDictionary.decode(makes[row] & 0xFFFF), modelDictionary.decode(models[row] & 0xFFFF),
+                typeDictionary.decode(types[row] & 0xFFFF), colorDictionary.decode(colors[row] & 0xFFFF),
+                odometers[row], prices[row]);
+    }
+
+    // -2 means the criterion is not set, -1 that no stored value can match it
+    private static int groupFor(TermDictionary dictionary, String term) {
+        return term == null ? -2 : dictionary.findFoldGroup(term);
+    }
+
+    private List<Vehicle> intRange(int[] column, int min, int max) {
+        List<Vehicle> result = new ArrayList<>();
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            int value = column[row];
+            if (value >= min && value <= max) {
+                result.add(vehicleAt(row));
+            }
+        }
+        return result;
+    }
+
+    private List<Vehicle> termMatches(short[] column, TermDictionary dictionary, String term) {
+        List<Vehicle> result = new ArrayList<>();
+        int group = dictionary.findFoldGroup(term);
+        if (group < 0) {
+            return result;
+        }
+        int[] groups = dictionary.foldGroups();
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            if (groups[column[row] & 0xFFFF] == group) {
+                result.add(vehicleAt(row));
+            }
+        }
+        return result;
+    }
+
+    private void indexVin(int row) {
+        if (vinIndex.get(vins[row]) < 0) {
+            vinIndex.put(vins[row], row);
+        } else {
+            shadowedVins++;
+        }
+    }
+
+    private boolean promoteDuplicate(int vin, int row) {
+        for (int next = live.nextSetBit(row + 1); next >= 0; next = live.nextSetBit(next + 1)) {
+            if (vins[next] == vin) {
+                vinIndex.put(vin, next);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves live rows to the front of every column and renumbers the VIN index
+    private void compact() {
+        int target = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            vins[target] = vins[row];
+            years[target] = years[row];
+            odometers[target] = odometers[row];
+            prices[target] = prices[row];
+            makes[target] = makes[row];
+            models[target] = models[row];
+            types[target] = types[row];
+            colors[target] = colors[row];
+            target++;
+        }
+        rowCount = target;
+        live = new BitSet(rowCount);
+        live.set(0, rowCount);
+        vinIndex.clear();
+        shadowedVins = 0;
+        for (int row = 0; row < rowCount; row++) {
+            indexVin(row);
+        }
+    }
+
+    private void grow(int capacity) {
+        vins = Arrays.copyOf(vins, capacity);
+        years = Arrays.copyOf(years, capacity);
+        odometers = Arrays.copyOf(odometers, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        makes = Arrays.copyOf(makes, capacity);
+        models = Arrays.copyOf(models, capacity);
+        types = Arrays.copyOf(types, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+    }
+}
@@ -0,0 +1,364 @@
+package com.dealership.model;
+
+import com.dealership.metrics.InventoryMetrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Dealership that many threads can use at once. Lookups and searches share a read lock,
+ * so they never block each other and always see the inventory between two writes; adds,
+ * removes and edits take the write lock one at a time, in a single order every thread
+ * agrees on.
+ * <p>
+ * {@link #getAllVehicles()} returns a read-only snapshot that is shared by every caller
+ * until the next add or remove, instead of copying the inventory on each call.
+ * <p>
+ * Change a vehicle that is in this inventory through {@link #update(int, Consumer)}, not by
+ * calling its setters from another thread, so the edit and its index updates happen
+ * together under the write lock.
+ */
+public class ConcurrentDealership extends Dealership {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    // Shared result of getAllVehicles, or null after the vehicle list changed
+    private volatile List<Vehicle> sharedVehicles;
+
+    /**
+     * Constructor for the ConcurrentDealership class
+     *
+     * @param name    Name of the dealership
+     * @param address Address of the dealership
+     * @param phone   Phone number of the dealership
+     */
+    public ConcurrentDealership(String name, String address, String phone) {
+        super(name, address, phone);
+    }
+
+    @Override
+    public String getName() {
+        return read(super::getName);
+    }
+
+    @Override
+    public void setName(String name) {
+        write(() -> super.setName(name));
+    }
+
+    @Override
+    public String getAddress() {
+        return read(super::getAddress);
+    }
+
+    @Override
+    public void setAddress(String address) {
+        write(() -> super.setAddress(address));
+    }
+
+    @Override
+    public String getPhone() {
+        return read(super::getPhone);
+    }
+
+    @Override
+    public void setPhone(String phone) {
+        write(() -> super.setPhone(phone));
+    }
+
+    @Override
+    public void addVehicle(Vehicle vehicle) {
+        write(() -> {
+            super.addVehicle(vehicle);
+            sharedVehicles = null;
+        });
+    }
+
+    @Override
+    public void addVehicles(Collection<Vehicle> vehicles) {
+        write(() -> {
+            super.addVehicles(vehicles);
+            sharedVehicles = null;
+        });
+    }
+
+    @Override
+    public Vehicle removeVehicle(int vin) {
+        return atomically(() -> {
+            Vehicle removed = super.removeVehicle(vin);
+            if (removed != null) {
+                sharedVehicles = null;
+            }
+            return removed;
+        });
+    }
+
+    @Override
+    boolean removeShadowed(Vehicle vehicle) {
+        return atomically(() -> {
+            boolean removed = super.removeShadowed(vehicle);
+            if (removed) {
+                sharedVehicles = null;
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * Edits the vehicle with the given VIN under the write lock, keeping every index in step
+     *
+     * @param vin  VIN of the vehicle to edit
+     * @param edit Calls the vehicle's setters
+     * @return The edited vehicle, or null if no vehicle has the VIN
+     */
+    public Vehicle update(int vin, Consumer<Vehicle> edit) {
+        return atomically(() -> {
+            Vehicle vehicle = super.findByVin(vin);
+            if (vehicle != null) {
+                edit.accept(vehicle);
+            }
+            return vehicle;
+        });
+    }
+
+    @Override
+    public <T> T atomically(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T reading(Supplier<T> action) {
+        return read(action);
+    }
+
+    @Override
+    public InventoryDiff diff() {
+        return read(super::diff);
+    }
+
+    @Override
+    void compare(InventoryDiff diff, List<Vehicle> incoming) {
+        read(() -> {
+            super.compare(diff, incoming);
+            return null;
+        });
+    }
+
+    @Override
+    void collectRemoved(InventoryDiff diff) {
+        read(() -> {
+            super.collectRemoved(diff);
+            return null;
+        });
+    }
+
+    @Override
+    long version() {
+        return read(super::version);
+    }
+
+    @Override
+    public Vehicle findByVin(int vin) {
+        return read(() -> super.findByVin(vin));
+    }
+
+    @Override
+    public boolean containsVin(int vin) {
+        return read(() -> super.containsVin(vin));
+    }
+
+    @Override
+    public int size() {
+        return read(super::size);
+    }
+
+    @Override
+    public void setTrackingChanges(boolean tracking) {
+        write(() -> super.setTrackingChanges(tracking));
+    }
+
+    @Override
+    public boolean isTrackingChanges() {
+        return read(super::isTrackingChanges);
+    }
+
+    @Override
+    public boolean isSnapshotRequired() {
+        return read(super::isSnapshotRequired);
+    }
+
+    @Override
+    public List<InventoryChange> drainChanges() {
+        return atomically(super::drainChanges);
+    }
+
+    @Override
+    public void setParallelQueries(boolean parallel) {
+        write(() -> super.setParallelQueries(parallel));
+    }
+
+    @Override
+    public boolean isParallelQueries() {
+        return read(super::isParallelQueries);
+    }
+
+    @Override
+    public void setParallelQueryThreshold(int threshold) {
+        write(() -> super.setParallelQueryThreshold(threshold));
+    }
+
+    @Override
+    public int getParallelQueryThreshold() {
+        return read(super::getParallelQueryThreshold);
+    }
+
+    @Override
+    public void setQueryCacheCapacity(int capacity) {
+        write(() -> super.setQueryCacheCapacity(capacity));
+    }
+
+    @Override
+    public int getQueryCacheCapacity() {
+        return read(super::getQueryCacheCapacity);
+    }
+
+    @Override
+    public QueryCacheStats getQueryCacheStats() {
+        return read(super::getQueryCacheStats);
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        long start = InventoryMetrics.start();
+        List<Vehicle> snapshot = sharedVehicles;
+        if (snapshot == null) {
+            snapshot = read(() -> {
+                List<Vehicle> current = sharedVehicles;
+                if (current == null) {
+                    // Writers are locked out, so no add or remove can slip in before this is published
+                    current = Collections.unmodifiableList(allVehicles());
+                    sharedVehicles = current;
+                }
+                return current;
+            });
+        }
+        InventoryMetrics.GET_ALL_VEHICLES.record(start);
+        return snapshot;
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByPrice(double min, double max) {
+        return read(() -> super.getVehiclesByPrice(min, max));
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMakeModel(String make, String model) {
+        return read(() -> super.getVehiclesByMakeModel(make, model));
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByYear(int min, int max) {
+        return read(() -> super.getVehiclesByYear(min, max));
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByColor(String color) {
+        return read(() -> super.getVehiclesByColor(color));
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByMileage(int min, int max) {
+        return read(() -> super.getVehiclesByMileage(min, max));
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByType(String type) {
+        return read(() -> super.getVehiclesByType(type));
+    }
+
+    @Override
+    public List<Vehicle> search(VehicleQuery query) {
+        return read(() -> super.search(query));
+    }
+
+    // cursor() and stream() read through this, so each page is consistent on its own
+    @Override
+    public VehiclePage page(VehicleQuery query, String continuation, int pageSize) {
+        return read(() -> super.page(query, continuation, pageSize));
+    }
+
+    @Override
+    public int count(VehicleQuery query) {
+        return read(() -> super.count(query));
+    }
+
+    // The index hooks run when a vehicle's setter is called; they must not overlap a search
+
+    @Override
+    void vinChanged(Vehicle vehicle, int oldVin) {
+        write(() -> super.vinChanged(vehicle, oldVin));
+    }
+
+    @Override
+    void priceChanged(Vehicle vehicle, double oldPrice) {
+        write(() -> super.priceChanged(vehicle, oldPrice));
+    }
+
+    @Override
+    void yearChanged(Vehicle vehicle, int oldYear) {
+        write(() -> super.yearChanged(vehicle, oldYear));
+    }
+
+    @Override
+    void odometerChanged(Vehicle vehicle, int oldOdometer) {
+        write(() -> super.odometerChanged(vehicle, oldOdometer));
+    }
+
+    @Override
+    void makeChanged(Vehicle vehicle, String oldMake) {
+        write(() -> super.makeChanged(vehicle, oldMake));
+    }
+
+    @Override
+    void modelChanged(Vehicle vehicle, String oldModel) {
+        write(() -> super.modelChanged(vehicle, oldModel));
+    }
+
+    @Override
+    void colorChanged(Vehicle vehicle, String oldColor) {
+        write(() -> super.colorChanged(vehicle, oldColor));
+    }
+
+    @Override
+    void vehicleTypeChanged(Vehicle vehicle, String oldType) {
+        write(() -> super.vehicleTypeChanged(vehicle, oldType));
+    }
+
+    private <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
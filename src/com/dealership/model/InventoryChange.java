@@ -0,0 +1,110 @@
+package com.dealership.model;
+
+/**
+ * One edit to an inventory, keyed by VIN, as recorded by a Dealership that is tracking changes.
+ * Replaying the changes of a Dealership in order against a copy of its earlier state gives
+ * the same inventory, in the same order.
+ */
+public final class InventoryChange {
+    /**
+     * Kind of edit
+     */
+    public enum Type {
+        ADD,
+        REMOVE,
+        UPDATE
+    }
+
+    private final Type type;
+    private final int vin;
+    private final Vehicle values;
+
+    private InventoryChange(Type type, int vin, Vehicle values) {
+        this.type = type;
+        this.vin = vin;
+        this.values = values;
+    }
+
+    /**
+     * @param vehicle Vehicle that was added
+     * @return A change that adds a copy of the vehicle to the end of the inventory
+     */
+    public static InventoryChange add(Vehicle vehicle) {
+        return new InventoryChange(Type.ADD, vehicle.getVin(), copyOf(vehicle));
+    }
+
+    /**
+     * @param vin VIN that was removed
+     * @return A change that removes the vehicle {@link Dealership#findByVin(int)} returns for the VIN
+     */
+    public static InventoryChange remove(int vin) {
+        return new InventoryChange(Type.REMOVE, vin, null);
+    }
+
+    /**
+     * @param vin     VIN the vehicle had before the edit
+     * @param vehicle Vehicle after the edit
+     * @return A change that gives the vehicle found by the old VIN the new vehicle's values
+     */
+    public static InventoryChange update(int vin, Vehicle vehicle) {
+        return new InventoryChange(Type.UPDATE, vin, copyOf(vehicle));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The VIN the change applies to; for updates, the VIN before the edit
+     */
+    public int getVin() {
+        return vin;
+    }
+
+    /**
+     * @return A detached copy of the vehicle's values, or null for a removal
+     */
+    public Vehicle getValues() {
+        return values;
+    }
+
+    /**
+     * Applies this change to an inventory
+     *
+     * @param dealership Inventory to change
+     * @return true if the change applied, false if no vehicle has the VIN it refers to
+     */
+    public boolean applyTo(Dealership dealership) {
+        switch (type) {
+            case ADD:
+                dealership.addVehicle(copyOf(values));
+                return true;
+            case REMOVE:
+                return dealership.removeVehicle(vin) != null;
+            default:
+                Vehicle vehicle = dealership.findByVin(vin);
+                if (vehicle == null) {
+                    return false;
+                }
+                vehicle.setVin(values.getVin());
+                vehicle.setYear(values.getYear());
+                vehicle.setMake(values.getMake());
+                vehicle.setModel(values.getModel());
+                vehicle.setVehicleType(values.getVehicleType());
+                vehicle.setColor(values.getColor());
+                vehicle.setOdometer(values.getOdometer());
+                vehicle.setPrice(values.getPrice());
+                return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + vin + (values == null ? "" : " " + values);
+    }
+
+    private static Vehicle copyOf(Vehicle vehicle) {
+        return new Vehicle(vehicle.getVin(), vehicle.getYear(), vehicle.getMake(), vehicle.getModel(),
+                vehicle.getVehicleType(), vehicle.getColor(), vehicle.getOdometer(), vehicle.getPrice());
+    }
+}
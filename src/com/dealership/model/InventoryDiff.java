@@ -0,0 +1,159 @@
+package com.dealership.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Differences between an inventory and an incoming list of vehicles, compared by VIN.
+ * Created by {@link Dealership#diff()}; the incoming vehicles are handed over in batches
+ * through {@link #compare(List)}, so the incoming list is never held in memory at once.
+ * Besides the changes, the diff keeps one bit per inventory slot and the VINs it adds.
+ * <p>
+ * Applying the changes, in order, leaves the inventory with the incoming vehicles' values.
+ * Vehicles that stay keep their place; new ones go at the end in incoming order. If a VIN
+ * appears more than once in the incoming list, its first vehicle is used. If it appears
+ * more than once in the inventory, the vehicle {@link Dealership#findByVin(int)} returns is
+ * the one compared, and the duplicates behind it are removed.
+ */
+public final class InventoryDiff {
+    private final Dealership dealership;
+    private final long version;
+    // Inventory slots whose VIN was seen in the incoming list
+    private final BitSet seen = new BitSet();
+    private final Set<Integer> addedVins = new HashSet<>();
+    private final List<InventoryChange> changes = new ArrayList<>();
+    // Duplicates to remove whose VIN stays in the inventory; a change keyed by VIN cannot address them
+    private final List<Vehicle> shadowed = new ArrayList<>();
+    private int added;
+    private int removed;
+    private int updated;
+    private int unchanged;
+    private int duplicates;
+    private boolean finished;
+
+    InventoryDiff(Dealership dealership, long version) {
+        this.dealership = dealership;
+        this.version = version;
+    }
+
+    /**
+     * Compares the next incoming vehicles with the inventory
+     *
+     * @param incoming Vehicles in incoming order; they are copied, not added
+     */
+    public void compare(List<Vehicle> incoming) {
+        if (finished) {
+            throw new IllegalStateException("Diff already finished");
+        }
+        dealership.compare(this, incoming);
+    }
+
+    /**
+     * Ends the comparison, adding a removal for every vehicle no incoming vehicle matched
+     *
+     * @return Every change, in the order to apply them; removals of inventory duplicates
+     *         whose VIN stays are not listed, since a change keyed by VIN cannot address them,
+     *         but {@link #apply()} makes them
+     */
+    public List<InventoryChange> finish() {
+        if (!finished) {
+            finished = true;
+            dealership.collectRemoved(this);
+        }
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Applies the changes, unless the inventory was edited since the diff was created.
+     * Runs as one step through {@link Dealership#atomically}, so readers of a
+     * {@link ConcurrentDealership} see the inventory either before or after all of them.
+     *
+     * @return true if the changes were applied, false if the diff is stale and has to be redone
+     */
+    public boolean apply() {
+        List<InventoryChange> all = finish();
+        return dealership.atomically(() -> {
+            if (dealership.version() != version) {
+                return false;
+            }
+            // By vehicle, before any change can renumber the slots
+            for (Vehicle vehicle : shadowed) {
+                dealership.removeShadowed(vehicle);
+            }
+            for (InventoryChange change : all) {
+                change.applyTo(dealership);
+            }
+            return true;
+        });
+    }
+
+    // Called by the Dealership with the slot the incoming VIN has, or -1
+    void match(int slot, Vehicle current, Vehicle incoming) {
+        if (slot < 0) {
+            if (addedVins.add(incoming.getVin())) {
+                changes.add(InventoryChange.add(incoming));
+                added++;
+            } else {
+                duplicates++;
+            }
+        } else if (seen.get(slot)) {
+            duplicates++;
+        } else {
+            seen.set(slot);
+            if (sameValues(current, incoming)) {
+                unchanged++;
+            } else {
+                changes.add(InventoryChange.update(current.getVin(), incoming));
+                updated++;
+            }
+        }
+    }
+
+    boolean isSeen(int slot) {
+        return seen.get(slot);
+    }
+
+    void removed(int vin) {
+        changes.add(InventoryChange.remove(vin));
+        removed++;
+    }
+
+    void removedShadowed(Vehicle vehicle) {
+        shadowed.add(vehicle);
+        removed++;
+    }
+
+    private static boolean sameValues(Vehicle a, Vehicle b) {
+        return a.getYear() == b.getYear() && a.getOdometer() == b.getOdometer()
+                && Double.compare(a.getPrice(), b.getPrice()) == 0 && a.getMake().equals(b.getMake())
+                && a.getModel().equals(b.getModel()) && a.getVehicleType().equals(b.getVehicleType())
+                && a.getColor().equals(b.getColor());
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return Incoming vehicles skipped because an earlier one had the same VIN
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+}
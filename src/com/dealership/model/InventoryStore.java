@@ -0,0 +1,114 @@
+package com.dealership.model;
+
+import java.util.List;
+
+/**
+ * Storage and search operations over a vehicle inventory. {@link Dealership} keeps vehicle
+ * objects with secondary indexes; {@link ColumnarInventoryStore} keeps primitive columns.
+ */
+public interface InventoryStore {
+    /**
+     * Adds a vehicle to the inventory
+     *
+     * @param vehicle Vehicle to add
+     */
+    void addVehicle(Vehicle vehicle);
+
+    /**
+     * Removes a vehicle from the inventory by VIN
+     *
+     * @param vin VIN of the vehicle to remove
+     * @return The removed vehicle, or null if not found
+     */
+    Vehicle removeVehicle(int vin);
+
+    /**
+     * Finds a vehicle by VIN
+     *
+     * @param vin VIN of the vehicle
+     * @return The vehicle, or null if not found
+     */
+    Vehicle findByVin(int vin);
+
+    /**
+     * Checks whether a vehicle with the given VIN is in the inventory
+     *
+     * @param vin VIN to check
+     * @return true if a vehicle with this VIN exists
+     */
+    boolean containsVin(int vin);
+
+    /**
+     * Returns the number of vehicles in the inventory
+     *
+     * @return Number of vehicles
+     */
+    int size();
+
+    /**
+     * Returns all vehicles in the inventory
+     *
+     * @return List of all vehicles
+     */
+    List<Vehicle> getAllVehicles();
+
+    /**
+     * Returns vehicles within a specified price range
+     *
+     * @param min Minimum price
+     * @param max Maximum price
+     * @return List of vehicles in the price range
+     */
+    List<Vehicle> getVehiclesByPrice(double min, double max);
+
+    /**
+     * Returns vehicles of the specified make and model. A blank make or model matches any.
+     *
+     * @param make  Make of the vehicle
+     * @param model Model of the vehicle
+     * @return List of vehicles with matching make and model
+     */
+    List<Vehicle> getVehiclesByMakeModel(String make, String model);
+
+    /**
+     * Returns vehicles within a specified year range
+     *
+     * @param min Minimum year
+     * @param max Maximum year
+     * @return List of vehicles in the year range
+     */
+    List<Vehicle> getVehiclesByYear(int min, int max);
+
+    /**
+     * Returns vehicles of the specified color
+     *
+     * @param color Color of the vehicle
+     * @return List of vehicles with matching color
+     */
+    List<Vehicle> getVehiclesByColor(String color);
+
+    /**
+     * Returns vehicles within a specified mileage range
+     *
+     * @param min Minimum mileage
+     * @param max Maximum mileage
+     * @return List of vehicles in the mileage range
+     */
+    List<Vehicle> getVehiclesByMileage(int min, int max);
+
+    /**
+     * Returns vehicles of the specified type
+     *
+     * @param type Type of the vehicle (car, truck, SUV, van)
+     * @return List of vehicles with matching type
+     */
+    List<Vehicle> getVehiclesByType(String type);
+
+    /**
+     * Returns vehicles matching every criterion of a query
+     *
+     * @param query Search criteria, sort order and limit
+     * @return List of matching vehicles
+     */
+    List<Vehicle> search(VehicleQuery query);
+}
@@ -0,0 +1,58 @@
+package com.dealership.model;
+
+/**
+ * Position after the last vehicle of a {@link VehiclePage}. It is written out as an opaque
+ * string so that a caller, such as a web client, can hold it between requests.
+ */
+final class PageToken {
+    // Slots are renumbered when the inventory is compacted; the layout says which numbering a slot belongs to
+    final int layout;
+    final int slot;
+    final long sequence;
+    final int returned;
+    final double key;
+
+    /**
+     * Constructor for the PageToken class
+     *
+     * @param layout   Layout version of the inventory when the page was read
+     * @param slot     Slot of the last vehicle on the page
+     * @param sequence Sequence number of the last vehicle on the page
+     * @param returned Number of vehicles returned so far, counting this page
+     * @param key      Sort key of the last vehicle, or 0 for unsorted results
+     */
+    PageToken(int layout, int slot, long sequence, int returned, double key) {
+        this.layout = layout;
+        this.slot = slot;
+        this.sequence = sequence;
+        this.returned = returned;
+        this.key = key;
+    }
+
+    /**
+     * Reads a token written by {@link #toString()}
+     *
+     * @param token The token
+     * @return The parsed token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static PageToken parse(String token) {
+        String[] parts = token.split("\\.");
+        try {
+            if (parts.length == 5) {
+                return new PageToken(Integer.parseInt(parts[0], 36), Integer.parseInt(parts[1], 36),
+                        Long.parseLong(parts[2], 36), Integer.parseInt(parts[3], 36),
+                        Double.longBitsToDouble(Long.parseUnsignedLong(parts[4], 36)));
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid continuation token: " + token);
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(layout, 36) + '.' + Integer.toString(slot, 36) + '.' + Long.toString(sequence, 36) + '.'
+                + Integer.toString(returned, 36) + '.' + Long.toUnsignedString(Double.doubleToLongBits(key), 36);
+    }
+}
@@ -0,0 +1,102 @@
+package com.dealership.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of query results for one {@link Dealership}. Every entry was
+ * computed at one version of the inventory. An add, remove or vehicle edit bumps the
+ * version, and the next lookup drops every entry, so a result is never served stale.
+ * <p>
+ * The cache is bounded by the number of vehicles its results hold, counting one more per
+ * entry so that empty results take room too. Methods are synchronized, since a
+ * {@link ConcurrentDealership} looks up results from many readers at once.
+ */
+final class QueryCache {
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int capacity;
+    private long version;
+    private int used;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Constructor for the QueryCache class
+     *
+     * @param capacity Maximum number of vehicles held across all cached results
+     */
+    QueryCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Looks up a result
+     *
+     * @param key     Normalized query parameters
+     * @param version Current version of the inventory
+     * @return The cached result, or null on a miss
+     */
+    synchronized Object get(Object key, long version) {
+        if (version != this.version) {
+            invalidations += entries.size();
+            entries.clear();
+            used = 0;
+            this.version = version;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Caches a result, evicting the least recently used entries until it fits. A result
+     * computed at an older version, or larger than the whole cache, is not kept.
+     *
+     * @param key      Normalized query parameters
+     * @param version  Version of the inventory the result was computed at
+     * @param result   The result, which must not be modified afterwards
+     * @param vehicles Number of vehicles in the result
+     */
+    synchronized void put(Object key, long version, Object result, int vehicles) {
+        int cost = vehicles + 1;
+        if (version != this.version || cost > capacity) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(result, cost));
+        if (previous != null) {
+            used -= previous.cost;
+        }
+        used += cost;
+        Iterator<Map.Entry<Object, Entry>> eldest = entries.entrySet().iterator();
+        while (used > capacity) {
+            used -= eldest.next().getValue().cost;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized QueryCacheStats stats() {
+        return new QueryCacheStats(hits, misses, evictions, invalidations, entries.size(), used, capacity);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Entry {
+        final Object result;
+        final int cost;
+
+        Entry(Object result, int cost) {
+            this.result = result;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dealership.model;
+
+/**
+ * Snapshot of a {@link Dealership}'s query cache counters, for sizing the cache
+ */
+public final class QueryCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int entries;
+    private final int used;
+    private final int capacity;
+
+    /**
+     * Constructor for the QueryCacheStats class
+     *
+     * @param hits          Lookups answered from the cache
+     * @param misses        Lookups that ran the query
+     * @param evictions     Entries dropped to make room
+     * @param invalidations Entries dropped because the inventory changed
+     * @param entries       Entries currently cached
+     * @param used          Vehicles currently held, plus one per entry
+     * @param capacity      Maximum of used
+     */
+    QueryCacheStats(long hits, long misses, long evictions, long invalidations, int entries, int used, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.used = used;
+        this.capacity = capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Share of lookups answered from the cache, between 0 and 1
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return Entries dropped to make room; many evictions and a low hit rate suggest a larger cache
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Entries dropped because the inventory changed
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Query cache: %d hits, %d misses (%.1f%% hit rate), %d entries using %d of %d, "
+                        + "%d evicted, %d invalidated", hits, misses, getHitRate() * 100, entries, used, capacity,
+                evictions, invalidations);
+    }
+}
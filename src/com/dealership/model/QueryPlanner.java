@@ -0,0 +1,161 @@
+package com.dealership.model;
+
+import java.util.BitSet;
+
+/**
+ * Chooses how a {@link VehicleQuery} reads the inventory: through the index of its most
+ * selective criterion, or with a full scan when no criterion narrows the search enough
+ */
+final class QueryPlanner {
+    /**
+     * Ways a query can read candidate slots
+     */
+    enum AccessPath {
+        FULL_SCAN, PRICE_INDEX, YEAR_INDEX, MILEAGE_INDEX, MAKE_INDEX, MODEL_INDEX, COLOR_INDEX, TYPE_INDEX
+    }
+
+    private final RangeIndex<Double> priceIndex;
+    private final RangeIndex<Integer> yearIndex;
+    private final RangeIndex<Integer> odometerIndex;
+    private final TermIndex makeIndex;
+    private final TermIndex modelIndex;
+    private final TermIndex colorIndex;
+    private final TermIndex typeIndex;
+
+    QueryPlanner(RangeIndex<Double> priceIndex, RangeIndex<Integer> yearIndex, RangeIndex<Integer> odometerIndex,
+                 TermIndex makeIndex, TermIndex modelIndex, TermIndex colorIndex, TermIndex typeIndex) {
+        this.priceIndex = priceIndex;
+        this.yearIndex = yearIndex;
+        this.odometerIndex = odometerIndex;
+        this.makeIndex = makeIndex;
+        this.modelIndex = modelIndex;
+        this.colorIndex = colorIndex;
+        this.typeIndex = typeIndex;
+    }
+
+    /**
+     * Picks the access path with the fewest estimated candidates
+     *
+     * @param query         Query to plan
+     * @param inventorySize Number of live vehicles
+     * @return The chosen plan
+     */
+    Plan plan(VehicleQuery query, int inventorySize) {
+        // An index only pays off when it skips at least half of the inventory
+        Plan best = new Plan(AccessPath.FULL_SCAN, inventorySize / 2, null);
+        if (query.getMake() != null) {
+            best = cheaper(best, AccessPath.MAKE_INDEX, makeIndex.get(query.getMake()));
+        }
+        if (query.getModel() != null) {
+            best = cheaper(best, AccessPath.MODEL_INDEX, modelIndex.get(query.getModel()));
+        }
+        if (query.getColor() != null) {
+            best = cheaper(best, AccessPath.COLOR_INDEX, colorIndex.get(query.getColor()));
+        }
+        if (query.getVehicleType() != null) {
+            best = cheaper(best, AccessPath.TYPE_INDEX, typeIndex.get(query.getVehicleType()));
+        }
+        if (query.hasYearRange()) {
+            int estimate = yearIndex.count(query.getMinYear(), query.getMaxYear(), best.estimate);
+            if (estimate < best.estimate) {
+                best = new Plan(AccessPath.YEAR_INDEX, estimate, null);
+            }
+        }
+        if (query.hasMileageRange()) {
+            int estimate = odometerIndex.count(query.getMinMileage(), query.getMaxMileage(), best.estimate);
+            if (estimate < best.estimate) {
+                best = new Plan(AccessPath.MILEAGE_INDEX, estimate, null);
+            }
+        }
+        if (query.hasPriceRange()) {
+            int estimate = priceCount(query.getMinPrice(), query.getMaxPrice(), best.estimate);
+            if (estimate < best.estimate) {
+                best = new Plan(AccessPath.PRICE_INDEX, estimate, null);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reads the candidate slots of a plan
+     *
+     * @param plan  Plan returned by {@link #plan(VehicleQuery, int)}
+     * @param query The planned query
+     * @return Candidate slots in ascending order, or null for a full scan
+     */
+    int[] candidates(Plan plan, VehicleQuery query) {
+        switch (plan.accessPath) {
+            case PRICE_INDEX:
+                if (Double.isNaN(query.getMinPrice()) || Double.isNaN(query.getMaxPrice())) {
+                    return new int[0];
+                }
+                return priceIndex.range(Dealership.priceKey(query.getMinPrice()), Dealership.priceKey(query.getMaxPrice()));
+            case YEAR_INDEX:
+                return yearIndex.range(query.getMinYear(), query.getMaxYear());
+            case MILEAGE_INDEX:
+                return odometerIndex.range(query.getMinMileage(), query.getMaxMileage());
+            case FULL_SCAN:
+                return null;
+            default:
+                return plan.postings.stream().toArray();
+        }
+    }
+
+    /**
+     * Reads the candidate slots of a plan as a set that can be walked from any slot onward.
+     * Term paths return the index's own posting set, which must not be modified.
+     *
+     * @param plan  Plan returned by {@link #plan(VehicleQuery, int)}
+     * @param query The planned query
+     * @return Candidate slots, or null for a full scan
+     */
+    BitSet candidateSet(Plan plan, VehicleQuery query) {
+        switch (plan.accessPath) {
+            case PRICE_INDEX:
+                if (Double.isNaN(query.getMinPrice()) || Double.isNaN(query.getMaxPrice())) {
+                    return new BitSet();
+                }
+                return priceIndex.slots(Dealership.priceKey(query.getMinPrice()), Dealership.priceKey(query.getMaxPrice()));
+            case YEAR_INDEX:
+                return yearIndex.slots(query.getMinYear(), query.getMaxYear());
+            case MILEAGE_INDEX:
+                return odometerIndex.slots(query.getMinMileage(), query.getMaxMileage());
+            case FULL_SCAN:
+                return null;
+            default:
+                return plan.postings;
+        }
+    }
+
+    private int priceCount(double min, double max, int cap) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return 0;
+        }
+        return priceIndex.count(Dealership.priceKey(min), Dealership.priceKey(max), cap);
+    }
+
+    private static Plan cheaper(Plan best, AccessPath accessPath, BitSet postings) {
+        int estimate = postings.cardinality();
+        return estimate < best.estimate ? new Plan(accessPath, estimate, postings) : best;
+    }
+
+    /**
+     * Access path chosen for a query together with its estimated number of candidates
+     */
+    static final class Plan {
+        final AccessPath accessPath;
+        final int estimate;
+        final BitSet postings;
+
+        Plan(AccessPath accessPath, int estimate, BitSet postings) {
+            this.accessPath = accessPath;
+            this.estimate = estimate;
+            this.postings = postings;
+        }
+
+        @Override
+        public String toString() {
+            return accessPath + " (~" + estimate + " rows)";
+        }
+    }
+}
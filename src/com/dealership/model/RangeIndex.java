@@ -0,0 +1,400 @@
+package com.dealership.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted secondary index from a numeric vehicle field to the inventory slots holding that value
+ *
+ * @param <K> Type of the indexed field
+ */
+final class RangeIndex<K extends Comparable<K>> {
+    private final TreeMap<K, SlotList> buckets = new TreeMap<>();
+
+    /**
+     * Adds a slot under a key
+     *
+     * @param key  Field value
+     * @param slot Inventory slot
+     */
+    void add(K key, int slot) {
+        SlotList slots = buckets.get(key);
+        if (slots == null) {
+            slots = new SlotList();
+            buckets.put(key, slots);
+        }
+        slots.add(slot);
+    }
+
+    /**
+     * Removes a slot from under a key
+     *
+     * @param key  Field value the slot was indexed with
+     * @param slot Inventory slot
+     */
+    void remove(K key, int slot) {
+        SlotList slots = buckets.get(key);
+        if (slots != null && slots.remove(slot) && slots.size() == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Returns the slots whose key lies in the inclusive range, in ascending slot order.
+     * Each bucket is already in slot order, so the buckets are merged rather than sorted:
+     * through a bitmap of the slots they span when the matches are dense, or through a heap
+     * of bucket heads when they are few and far apart.
+     *
+     * @param min Lower bound
+     * @param max Upper bound
+     * @return Matching slots
+     */
+    int[] range(K min, K max) {
+        if (min.compareTo(max) > 0) {
+            return new int[0];
+        }
+        NavigableMap<K, SlotList> matches = buckets.subMap(min, true, max, true);
+        SlotList[] lists = matches.values().toArray(new SlotList[0]);
+        int count = 0;
+        int lowest = Integer.MAX_VALUE;
+        int highest = -1;
+        for (SlotList slots : lists) {
+            count += slots.size();
+            lowest = Math.min(lowest, slots.first());
+            highest = Math.max(highest, slots.last());
+        }
+        int[] result = new int[count];
+        if (lists.length == 1) {
+            lists[0].copyTo(result, 0);
+        } else if (count > 0 && (long) highest - lowest < (long) count * Long.SIZE) {
+            mergeDense(lists, lowest, highest, result);
+        } else if (count > 0) {
+            mergeSparse(lists, result);
+        }
+        return result;
+    }
+
+    // Marks every slot in a bitmap over the span the buckets cover, then reads the bits in order
+    private static void mergeDense(SlotList[] lists, int lowest, int highest, int[] result) {
+        long[] words = new long[((highest - lowest) >>> 6) + 1];
+        for (SlotList slots : lists) {
+            for (int i = 0; i < slots.end(); i++) {
+                int slot = slots.get(i);
+                if (slot >= 0) {
+                    words[(slot - lowest) >>> 6] |= 1L << (slot - lowest);
+                }
+            }
+        }
+        int pos = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                result[pos++] = lowest + (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+    }
+
+    // Repeatedly takes the lowest head among the buckets, kept in a binary heap of bucket numbers
+    private static void mergeSparse(SlotList[] lists, int[] result) {
+        int[] heap = new int[lists.length];
+        int[] next = new int[lists.length];
+        int heapSize = 0;
+        for (int list = 0; list < lists.length; list++) {
+            next[list] = lists[list].nextLive(0);
+            if (next[list] >= 0) {
+                heap[heapSize++] = list;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, lists, next);
+        }
+        int pos = 0;
+        while (heapSize > 0) {
+            int list = heap[0];
+            result[pos++] = lists[list].get(next[list]);
+            next[list] = lists[list].nextLive(next[list] + 1);
+            if (next[list] < 0) {
+                heap[0] = heap[--heapSize];
+            }
+            if (heapSize > 0) {
+                siftDown(heap, heapSize, 0, lists, next);
+            }
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int index, SlotList[] lists, int[] next) {
+        int list = heap[index];
+        int slot = lists[list].get(next[list]);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            int childSlot = lists[heap[child]].get(next[heap[child]]);
+            if (child + 1 < heapSize) {
+                int rightSlot = lists[heap[child + 1]].get(next[heap[child + 1]]);
+                if (rightSlot < childSlot) {
+                    child++;
+                    childSlot = rightSlot;
+                }
+            }
+            if (childSlot >= slot) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = list;
+    }
+
+    /**
+     * Marks the slots whose key lies in the inclusive range. The set takes one bit per
+     * inventory slot however many match.
+     *
+     * @param min Lower bound
+     * @param max Upper bound
+     * @return Matching slots
+     */
+    BitSet slots(K min, K max) {
+        BitSet result = new BitSet();
+        if (min.compareTo(max) > 0) {
+            return result;
+        }
+        for (SlotList slots : buckets.subMap(min, true, max, true).values()) {
+            for (int i = 0; i < slots.end(); i++) {
+                int slot = slots.get(i);
+                if (slot >= 0) {
+                    result.set(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits the slots whose key lies between two inclusive bounds, in key order and by
+     * ascending slot within each key, until the visitor asks to stop
+     *
+     * @param min        Lower bound, or null for none
+     * @param max        Upper bound, or null for none
+     * @param descending true to visit the highest keys first
+     * @param visitor    Called for each slot
+     */
+    void walk(K min, K max, boolean descending, SlotVisitor<? super K> visitor) {
+        NavigableMap<K, SlotList> view;
+        if (min != null && max != null) {
+            if (min.compareTo(max) > 0) {
+                return;
+            }
+            view = buckets.subMap(min, true, max, true);
+        } else if (min != null) {
+            view = buckets.tailMap(min, true);
+        } else if (max != null) {
+            view = buckets.headMap(max, true);
+        } else {
+            view = buckets;
+        }
+        for (Map.Entry<K, SlotList> bucket : (descending ? view.descendingMap() : view).entrySet()) {
+            SlotList slots = bucket.getValue();
+            for (int i = 0; i < slots.end(); i++) {
+                int slot = slots.get(i);
+                if (slot >= 0 && !visitor.visit(bucket.getKey(), slot)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the slots whose key lies in the inclusive range, giving up once the count
+     * exceeds a cap so that estimating a wide range stays cheap
+     *
+     * @param min Lower bound
+     * @param max Upper bound
+     * @param cap Count above which counting stops
+     * @return The number of matching slots, or a value greater than cap
+     */
+    int count(K min, K max, int cap) {
+        if (min.compareTo(max) > 0) {
+            return 0;
+        }
+        int count = 0;
+        for (SlotList slots : buckets.subMap(min, true, max, true).values()) {
+            count += slots.size();
+            if (count > cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes every entry
+     */
+    void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Receives the slots of {@link #walk(Comparable, Comparable, boolean, SlotVisitor)}
+     *
+     * @param <K> Type of the indexed field
+     */
+    interface SlotVisitor<K> {
+        /**
+         * @param key  Field value
+         * @param slot Inventory slot
+         * @return true to continue the walk
+         */
+        boolean visit(K key, int slot);
+    }
+
+    /**
+     * Growable int array kept in ascending order. New vehicles always take the highest
+     * slot, so the common add is an append. A removed slot is only marked, by storing it
+     * as {@code -slot - 1}, so removal costs a binary search; the marks are swept out once
+     * they make up half the array, which keeps the sweeps' cost at O(1) per removal.
+     */
+    static final class SlotList {
+        private int[] slots = new int[4];
+        // Entries in use, live or removed
+        private int end;
+        private int removed;
+
+        void add(int slot) {
+            if (end == 0 || slot(slots[end - 1]) < slot) {
+                if (end == slots.length) {
+                    slots = Arrays.copyOf(slots, end * 2);
+                }
+                slots[end++] = slot;
+                return;
+            }
+            int pos = find(slot);
+            if (pos >= 0) {
+                if (slots[pos] < 0) {
+                    // The slot was removed from this key and is coming back, as when a field is set back
+                    slots[pos] = slot;
+                    removed--;
+                }
+                return;
+            }
+            pos = -pos - 1;
+            if (end == slots.length) {
+                slots = Arrays.copyOf(slots, end * 2);
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, end - pos);
+            slots[pos] = slot;
+            end++;
+        }
+
+        boolean remove(int slot) {
+            int pos = find(slot);
+            if (pos < 0 || slots[pos] < 0) {
+                return false;
+            }
+            slots[pos] = -slot - 1;
+            removed++;
+            if (removed * 2 > end) {
+                sweep();
+            }
+            return true;
+        }
+
+        /**
+         * @return Number of live slots
+         */
+        int size() {
+            return end - removed;
+        }
+
+        /**
+         * @return Number of entries, live or removed, that {@link #get(int)} can read
+         */
+        int end() {
+            return end;
+        }
+
+        /**
+         * @param index Entry below {@link #end()}
+         * @return The slot, or a negative value if it was removed
+         */
+        int get(int index) {
+            return slots[index];
+        }
+
+        /**
+         * @param index Entry to start at
+         * @return The first entry at or after index holding a live slot, or -1 if none
+         */
+        int nextLive(int index) {
+            while (index < end && slots[index] < 0) {
+                index++;
+            }
+            return index < end ? index : -1;
+        }
+
+        /**
+         * @return Lowest slot ever held, live or removed; a lower bound of the live slots
+         */
+        int first() {
+            return slot(slots[0]);
+        }
+
+        /**
+         * @return Highest slot ever held, live or removed; an upper bound of the live slots
+         */
+        int last() {
+            return slot(slots[end - 1]);
+        }
+
+        int copyTo(int[] target, int pos) {
+            if (removed == 0) {
+                System.arraycopy(slots, 0, target, pos, end);
+                return pos + end;
+            }
+            for (int i = 0; i < end; i++) {
+                if (slots[i] >= 0) {
+                    target[pos++] = slots[i];
+                }
+            }
+            return pos;
+        }
+
+        // Binary search by slot, seeing through removal marks
+        private int find(int slot) {
+            int low = 0;
+            int high = end - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = slot(slots[mid]);
+                if (value < slot) {
+                    low = mid + 1;
+                } else if (value > slot) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void sweep() {
+            int live = 0;
+            for (int i = 0; i < end; i++) {
+                if (slots[i] >= 0) {
+                    slots[live++] = slots[i];
+                }
+            }
+            end = live;
+            removed = 0;
+        }
+
+        private static int slot(int entry) {
+            return entry >= 0 ? entry : -entry - 1;
+        }
+    }
+}
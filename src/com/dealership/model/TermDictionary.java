@@ -0,0 +1,118 @@
+package com.dealership.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dictionary for a low-cardinality text column. Each distinct value gets a small integer
+ * code and one canonical String instance, and values that are equal ignoring case share
+ * a fold group so case-insensitive filters compare integers instead of strings.
+ * Code 0 is reserved for null.
+ */
+public final class TermDictionary {
+    /**
+     * Largest number of codes a dictionary can hand out, so codes fit in an unsigned short
+     */
+    public static final int MAX_CODES = 1 << 16;
+
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private final HashMap<String, Integer> foldGroups = new HashMap<>();
+    private String[] terms = new String[16];
+    private int[] groups = new int[16];
+    private int size = 1;
+
+    /**
+     * Constructor for the TermDictionary class
+     */
+    public TermDictionary() {
+        groups[0] = -1;
+    }
+
+    /**
+     * Returns the code of a value, adding it to the dictionary if it is new
+     *
+     * @param term Value to encode, may be null
+     * @return The code of the value
+     */
+    public int encode(String term) {
+        if (term == null) {
+            return 0;
+        }
+        Integer code = codes.get(term);
+        if (code != null) {
+            return code;
+        }
+        if (size == MAX_CODES) {
+            throw new IllegalStateException("Dictionary is full: more than " + (MAX_CODES - 1) + " distinct values");
+        }
+        if (size == terms.length) {
+            terms = Arrays.copyOf(terms, size * 2);
+            groups = Arrays.copyOf(groups, size * 2);
+        }
+        int newCode = size++;
+        terms[newCode] = term;
+        groups[newCode] = foldGroups.computeIfAbsent(TermIndex.normalize(term), key -> foldGroups.size());
+        codes.put(term, newCode);
+        return newCode;
+    }
+
+    /**
+     * Returns the canonical instance of a value
+     *
+     * @param term Value to intern, may be null
+     * @return A String equal to the value that is shared by every caller
+     */
+    public String intern(String term) {
+        int code = encode(term);
+        return terms[code];
+    }
+
+    /**
+     * Returns the value for a code
+     *
+     * @param code Code returned by {@link #encode(String)}
+     * @return The canonical value, or null for code 0
+     */
+    public String decode(int code) {
+        return terms[code];
+    }
+
+    /**
+     * Returns the fold group of a code. Two codes share a group exactly when their values
+     * are equal ignoring case.
+     *
+     * @param code Code returned by {@link #encode(String)}
+     * @return The fold group, or -1 for code 0
+     */
+    public int foldGroupOf(int code) {
+        return groups[code];
+    }
+
+    /**
+     * Looks up the fold group of a value without adding it
+     *
+     * @param term Value to look up
+     * @return The fold group, or -1 if no value equal to it ignoring case has been encoded
+     */
+    public int findFoldGroup(String term) {
+        if (term == null) {
+            return -1;
+        }
+        Integer group = foldGroups.get(TermIndex.normalize(term));
+        return group == null ? -1 : group;
+    }
+
+    /**
+     * Returns the code-to-group table. Entries past {@link #size()} are unused.
+     */
+    int[] foldGroups() {
+        return groups;
+    }
+
+    /**
+     * @return Number of codes handed out, including the null code
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,102 @@
+package com.dealership.model;
+
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Case-insensitive inverted index from a text field to a bitset of inventory slots
+ */
+final class TermIndex {
+    private static final BitSet EMPTY = new BitSet();
+
+    private final HashMap<String, BitSet> postings = new HashMap<>();
+    // Postings by exact spelling, so interned field values skip case folding on every add
+    private final HashMap<String, BitSet> spellings = new HashMap<>();
+
+    /**
+     * Adds a slot under a term
+     *
+     * @param term Field value, ignored if null
+     * @param slot Inventory slot
+     */
+    void add(String term, int slot) {
+        if (term == null) {
+            return;
+        }
+        BitSet slots = spellings.get(term);
+        if (slots == null) {
+            slots = postings.computeIfAbsent(normalize(term), key -> new BitSet());
+            spellings.put(term, slots);
+        }
+        slots.set(slot);
+    }
+
+    /**
+     * Removes a slot from under a term
+     *
+     * @param term Field value the slot was indexed with
+     * @param slot Inventory slot
+     */
+    void remove(String term, int slot) {
+        if (term == null) {
+            return;
+        }
+        BitSet slots = spellings.get(term);
+        if (slots != null) {
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                postings.remove(normalize(term));
+                spellings.values().removeIf(spelling -> spelling == slots);
+            }
+        }
+    }
+
+    /**
+     * Returns the posting list for a term. The returned bitset must not be modified.
+     *
+     * @param term Term to look up
+     * @return Slots whose field equals the term ignoring case
+     */
+    BitSet get(String term) {
+        if (term == null) {
+            return EMPTY;
+        }
+        BitSet slots = postings.get(normalize(term));
+        return slots == null ? EMPTY : slots;
+    }
+
+    /**
+     * Removes every entry
+     */
+    void clear() {
+        postings.clear();
+        spellings.clear();
+    }
+
+    /**
+     * Folds a term so that two terms have the same key exactly when
+     * {@link String#equalsIgnoreCase(String)} considers them equal
+     *
+     * @param term Term to fold
+     * @return The folded key, the same instance if it is already folded
+     */
+    static String normalize(String term) {
+        int length = term.length();
+        int i = 0;
+        while (i < length && fold(term.charAt(i)) == term.charAt(i)) {
+            i++;
+        }
+        if (i == length) {
+            return term;
+        }
+        char[] chars = term.toCharArray();
+        for (; i < length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
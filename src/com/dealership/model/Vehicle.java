@@ -1,5 +1,7 @@
 package com.dealership.model;
 
+import java.util.Objects;
+
 /**
  * Represents a vehicle in the dealership inventory
  */
@@ -13,6 +15,12 @@ public class Vehicle {
     private int odometer;
     private double price;
 
+    // Inventory that indexes this vehicle and its slot there; the setters keep that index in sync
+    Dealership owner;
+    int slot = -1;
+    // Order in which the owner received it; unlike the slot, compaction never changes it
+    long sequence;
+
     /**
      * Constructor for the Vehicle class
      *
@@ -36,13 +44,43 @@ public class Vehicle {
         this.price = price;
     }
 
+    /**
+     * Checks the values a new vehicle must have: a year of 1900 or later, no negative
+     * odometer reading, a finite price that is not negative, and a make, model, type and
+     * color that are not empty and hold no '|' or control characters, which would break the
+     * rows of the inventory file and journal
+     *
+     * @return true if the vehicle may be added to an inventory
+     */
+    public boolean isValid() {
+        return year >= 1900 && odometer >= 0 && price >= 0 && price < Double.POSITIVE_INFINITY
+                && isStorable(make) && isStorable(model) && isStorable(vehicleType) && isStorable(color);
+    }
+
+    private static boolean isStorable(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '|' || Character.isISOControl(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Getters and Setters
     public int getVin() {
         return vin;
     }
 
     public void setVin(int vin) {
+        int oldVin = this.vin;
         this.vin = vin;
+        if (owner != null && oldVin != vin) {
+            owner.vinChanged(this, oldVin);
+        }
     }
 
     public int getYear() {
@@ -50,7 +88,11 @@ public class Vehicle {
     }
 
     public void setYear(int year) {
+        int oldYear = this.year;
         this.year = year;
+        if (owner != null && oldYear != year) {
+            owner.yearChanged(this, oldYear);
+        }
     }
 
     public String getMake() {
@@ -58,7 +100,11 @@ public class Vehicle {
     }
 
     public void setMake(String make) {
+        String oldMake = this.make;
         this.make = make;
+        if (owner != null && !Objects.equals(oldMake, make)) {
+            owner.makeChanged(this, oldMake);
+        }
     }
 
     public String getModel() {
@@ -66,7 +112,11 @@ public class Vehicle {
     }
 
     public void setModel(String model) {
+        String oldModel = this.model;
         this.model = model;
+        if (owner != null && !Objects.equals(oldModel, model)) {
+            owner.modelChanged(this, oldModel);
+        }
     }
 
     public String getVehicleType() {
@@ -74,7 +124,11 @@ public class Vehicle {
     }
 
     public void setVehicleType(String vehicleType) {
+        String oldVehicleType = this.vehicleType;
         this.vehicleType = vehicleType;
+        if (owner != null && !Objects.equals(oldVehicleType, vehicleType)) {
+            owner.vehicleTypeChanged(this, oldVehicleType);
+        }
     }
 
     public String getColor() {
@@ -82,7 +136,11 @@ public class Vehicle {
     }
 
     public void setColor(String color) {
+        String oldColor = this.color;
         this.color = color;
+        if (owner != null && !Objects.equals(oldColor, color)) {
+            owner.colorChanged(this, oldColor);
+        }
     }
 
     public int getOdometer() {
@@ -90,7 +148,11 @@ public class Vehicle {
     }
 
     public void setOdometer(int odometer) {
+        int oldOdometer = this.odometer;
         this.odometer = odometer;
+        if (owner != null && oldOdometer != odometer) {
+            owner.odometerChanged(this, oldOdometer);
+        }
     }
 
     public double getPrice() {
@@ -98,7 +160,11 @@ public class Vehicle {
     }
 
     public void setPrice(double price) {
+        double oldPrice = this.price;
         this.price = price;
+        if (owner != null && oldPrice != price) {
+            owner.priceChanged(this, oldPrice);
+        }
     }
 
     /**
@@ -108,7 +174,6 @@ public class Vehicle {
      */
     @Override
     public String toString() {
-        return String.format("VIN: %d | %d %s %s | Type: %s | Color: %s | Odometer: %d | Price: $%.2f",
-                vin, year, make, model, vehicleType, color, odometer, price);
+        return VehicleFormatter.display(this);
     }
 }
@@ -0,0 +1,206 @@
+package com.dealership.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Reusable text buffer that formats vehicles without {@link String#format}. Rows come out
+ * exactly as {@code "%d|%d|%s|%s|%s|%s|%d|%.2f"} would print them, and display lines as
+ * {@link Vehicle#toString()} always has. Integers and whole-cent prices are written digit
+ * by digit; other prices, and locales that do not use ASCII digits and a '.' decimal
+ * separator, go through {@code String.format} so the output never changes.
+ */
+public final class VehicleFormatter {
+    private static final ThreadLocal<VehicleFormatter> DISPLAY = ThreadLocal.withInitial(VehicleFormatter::new);
+    // Largest magnitude whose cents are still exact in a double
+    private static final double FAST_PRICE_LIMIT = 1e13;
+
+    private char[] buffer = new char[256];
+    private int length;
+    private Locale checkedLocale;
+    private boolean plainLocale;
+
+    /**
+     * Appends a vehicle in the inventory file format, without a line terminator
+     *
+     * @param vehicle Vehicle to format
+     * @return This formatter
+     */
+    public VehicleFormatter appendRow(Vehicle vehicle) {
+        appendInt(vehicle.getVin()).append('|');
+        appendInt(vehicle.getYear()).append('|');
+        append(vehicle.getMake()).append('|');
+        append(vehicle.getModel()).append('|');
+        append(vehicle.getVehicleType()).append('|');
+        append(vehicle.getColor()).append('|');
+        appendInt(vehicle.getOdometer()).append('|');
+        return appendPrice(vehicle.getPrice());
+    }
+
+    /**
+     * Appends a vehicle in the format shown to users, without a line terminator
+     *
+     * @param vehicle Vehicle to format
+     * @return This formatter
+     */
+    public VehicleFormatter appendDisplay(Vehicle vehicle) {
+        append("VIN: ").appendInt(vehicle.getVin());
+        append(" | ").appendInt(vehicle.getYear());
+        append(' ').append(vehicle.getMake());
+        append(' ').append(vehicle.getModel());
+        append(" | Type: ").append(vehicle.getVehicleType());
+        append(" | Color: ").append(vehicle.getColor());
+        append(" | Odometer: ").appendInt(vehicle.getOdometer());
+        return append(" | Price: $").appendPrice(vehicle.getPrice());
+    }
+
+    /**
+     * Formats one vehicle the way {@link Vehicle#toString()} shows it, reusing a per-thread buffer
+     *
+     * @param vehicle Vehicle to format
+     * @return The display line
+     */
+    public static String display(Vehicle vehicle) {
+        VehicleFormatter formatter = DISPLAY.get();
+        String line = formatter.clear().appendDisplay(vehicle).toString();
+        if (formatter.buffer.length > 1024) {
+            // Do not keep a buffer grown by one very long value
+            DISPLAY.remove();
+        }
+        return line;
+    }
+
+    /**
+     * Appends text the way {@code %s} prints it
+     *
+     * @param text Text to append, may be null
+     * @return This formatter
+     */
+    public VehicleFormatter append(String text) {
+        String value = String.valueOf(text);
+        int count = value.length();
+        ensureCapacity(count);
+        value.getChars(0, count, buffer, length);
+        length += count;
+        return this;
+    }
+
+    public VehicleFormatter append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    /**
+     * Appends an integer the way {@code %d} prints it
+     *
+     * @param value Value to append
+     * @return This formatter
+     */
+    public VehicleFormatter appendInt(int value) {
+        if (!isPlainLocale()) {
+            return append(String.format("%d", value));
+        }
+        appendDigits(value);
+        return this;
+    }
+
+    /**
+     * Appends a price the way {@code %.2f} prints it
+     *
+     * @param price Price to append
+     * @return This formatter
+     */
+    public VehicleFormatter appendPrice(double price) {
+        long cents = Math.round(price * 100);
+        if (Math.abs(price) >= FAST_PRICE_LIMIT || cents / 100.0 != price || !isPlainLocale()) {
+            return append(String.format("%.2f", price));
+        }
+        // The sign bit also catches -0.0, which %.2f prints as -0.00
+        if (Double.doubleToRawLongBits(price) < 0) {
+            append('-');
+            cents = -cents;
+        }
+        appendDigits(cents / 100);
+        ensureCapacity(3);
+        int fraction = (int) (cents % 100);
+        buffer[length++] = '.';
+        buffer[length++] = (char) ('0' + fraction / 10);
+        buffer[length++] = (char) ('0' + fraction % 10);
+        return this;
+    }
+
+    /**
+     * Discards the buffered text, keeping the buffer for reuse
+     *
+     * @return This formatter
+     */
+    public VehicleFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Writes the buffered text to a writer
+     *
+     * @param writer Writer to write to
+     * @throws IOException If the writer fails
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(buffer, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private void appendDigits(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+        } else {
+            // Work on the negative value so Long.MIN_VALUE needs no special case
+            value = -value;
+        }
+        int end = length + digitCount(value);
+        int position = end;
+        do {
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        length = end;
+    }
+
+    // Number of digits in a value that is zero or negative
+    private static int digitCount(long negative) {
+        int count = 1;
+        for (long limit = -10; count < 19 && negative <= limit; limit *= 10) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean isPlainLocale() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (locale != checkedLocale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            plainLocale = symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+            checkedLocale = locale;
+        }
+        return plainLocale;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dealership.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of search results, returned by {@link Dealership#page(VehicleQuery, String, int)}
+ */
+public final class VehiclePage {
+    private final List<Vehicle> vehicles;
+    private final String continuation;
+
+    /**
+     * Constructor for the VehiclePage class
+     *
+     * @param vehicles     Vehicles on this page, in result order
+     * @param continuation Token that reads the next page, or null if this is the last page
+     */
+    VehiclePage(List<Vehicle> vehicles, String continuation) {
+        this.vehicles = Collections.unmodifiableList(vehicles);
+        this.continuation = continuation;
+    }
+
+    public List<Vehicle> getVehicles() {
+        return vehicles;
+    }
+
+    /**
+     * @return Token to pass back for the next page, or null if there are no more results
+     */
+    public String getContinuation() {
+        return continuation;
+    }
+
+    public boolean hasMore() {
+        return continuation != null;
+    }
+}
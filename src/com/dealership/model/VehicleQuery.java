@@ -0,0 +1,285 @@
+package com.dealership.model;
+
+import java.util.Objects;
+
+/**
+ * An immutable multi-criteria vehicle search. Every criterion is optional; a vehicle
+ * matches when it satisfies all criteria that were set.
+ */
+public final class VehicleQuery {
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Integer minYear;
+    private final Integer maxYear;
+    private final Integer minMileage;
+    private final Integer maxMileage;
+    private final String make;
+    private final String model;
+    private final String color;
+    private final String vehicleType;
+    private final VehicleSort sort;
+    private final int limit;
+
+    private VehicleQuery(Builder builder) {
+        this.minPrice = builder.minPrice;
+        this.maxPrice = builder.maxPrice;
+        this.minYear = builder.minYear;
+        this.maxYear = builder.maxYear;
+        this.minMileage = builder.minMileage;
+        this.maxMileage = builder.maxMileage;
+        this.make = builder.make;
+        this.model = builder.model;
+        this.color = builder.color;
+        this.vehicleType = builder.vehicleType;
+        this.sort = builder.sort;
+        this.limit = builder.limit;
+    }
+
+    /**
+     * Starts a new query with no criteria
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean hasYearRange() {
+        return minYear != null;
+    }
+
+    public int getMinYear() {
+        return minYear;
+    }
+
+    public int getMaxYear() {
+        return maxYear;
+    }
+
+    public boolean hasMileageRange() {
+        return minMileage != null;
+    }
+
+    public int getMinMileage() {
+        return minMileage;
+    }
+
+    public int getMaxMileage() {
+        return maxMileage;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    /**
+     * @return The requested sort order, or null to keep inventory order
+     */
+    public VehicleSort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return Maximum number of results, or 0 for no limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Checks a vehicle against every criterion of this query
+     *
+     * @param vehicle Vehicle to check
+     * @return true if the vehicle satisfies all criteria
+     */
+    public boolean matches(Vehicle vehicle) {
+        if (minPrice != null && !(vehicle.getPrice() >= minPrice && vehicle.getPrice() <= maxPrice)) {
+            return false;
+        }
+        if (minYear != null && (vehicle.getYear() < minYear || vehicle.getYear() > maxYear)) {
+            return false;
+        }
+        if (minMileage != null && (vehicle.getOdometer() < minMileage || vehicle.getOdometer() > maxMileage)) {
+            return false;
+        }
+        return (make == null || make.equalsIgnoreCase(vehicle.getMake())) &&
+                (model == null || model.equalsIgnoreCase(vehicle.getModel())) &&
+                (color == null || color.equalsIgnoreCase(vehicle.getColor())) &&
+                (vehicleType == null || vehicleType.equalsIgnoreCase(vehicle.getVehicleType()));
+    }
+
+    /**
+     * Two queries are equal when they match the same vehicles in the same order. Text
+     * criteria are compared ignoring case, as {@link #matches(Vehicle)} compares them.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VehicleQuery)) {
+            return false;
+        }
+        VehicleQuery other = (VehicleQuery) o;
+        return limit == other.limit && sort == other.sort
+                && Objects.equals(minPrice, other.minPrice) && Objects.equals(maxPrice, other.maxPrice)
+                && Objects.equals(minYear, other.minYear) && Objects.equals(maxYear, other.maxYear)
+                && Objects.equals(minMileage, other.minMileage) && Objects.equals(maxMileage, other.maxMileage)
+                && sameTerm(make, other.make) && sameTerm(model, other.model)
+                && sameTerm(color, other.color) && sameTerm(vehicleType, other.vehicleType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minPrice, maxPrice, minYear, maxYear, minMileage, maxMileage, termKey(make),
+                termKey(model), termKey(color), termKey(vehicleType), sort, limit);
+    }
+
+    private static boolean sameTerm(String a, String b) {
+        return a == null ? b == null : a.equalsIgnoreCase(b);
+    }
+
+    private static String termKey(String term) {
+        return term == null ? null : TermIndex.normalize(term);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("VehicleQuery{");
+        if (minPrice != null) {
+            sb.append(" price ").append(minPrice).append('-').append(maxPrice);
+        }
+        if (minYear != null) {
+            sb.append(" year ").append(minYear).append('-').append(maxYear);
+        }
+        if (minMileage != null) {
+            sb.append(" mileage ").append(minMileage).append('-').append(maxMileage);
+        }
+        if (make != null) {
+            sb.append(" make=").append(make);
+        }
+        if (model != null) {
+            sb.append(" model=").append(model);
+        }
+        if (color != null) {
+            sb.append(" color=").append(color);
+        }
+        if (vehicleType != null) {
+            sb.append(" type=").append(vehicleType);
+        }
+        if (sort != null) {
+            sb.append(" sort=").append(sort);
+        }
+        if (limit > 0) {
+            sb.append(" limit=").append(limit);
+        }
+        return sb.append(" }").toString();
+    }
+
+    /**
+     * Builder for {@link VehicleQuery}. Blank text criteria are treated as "any".
+     */
+    public static final class Builder {
+        private Double minPrice;
+        private Double maxPrice;
+        private Integer minYear;
+        private Integer maxYear;
+        private Integer minMileage;
+        private Integer maxMileage;
+        private String make;
+        private String model;
+        private String color;
+        private String vehicleType;
+        private VehicleSort sort;
+        private int limit;
+
+        private Builder() {
+        }
+
+        public Builder priceRange(double min, double max) {
+            this.minPrice = min;
+            this.maxPrice = max;
+            return this;
+        }
+
+        public Builder yearRange(int min, int max) {
+            this.minYear = min;
+            this.maxYear = max;
+            return this;
+        }
+
+        public Builder mileageRange(int min, int max) {
+            this.minMileage = min;
+            this.maxMileage = max;
+            return this;
+        }
+
+        public Builder make(String make) {
+            this.make = blankToNull(make);
+            return this;
+        }
+
+        public Builder model(String model) {
+            this.model = blankToNull(model);
+            return this;
+        }
+
+        public Builder color(String color) {
+            this.color = blankToNull(color);
+            return this;
+        }
+
+        public Builder vehicleType(String vehicleType) {
+            this.vehicleType = blankToNull(vehicleType);
+            return this;
+        }
+
+        public Builder sortBy(VehicleSort sort) {
+            this.sort = sort;
+            return this;
+        }
+
+        /**
+         * @param limit Maximum number of results, or 0 for no limit
+         */
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public VehicleQuery build() {
+            return new VehicleQuery(this);
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.dealership.model;
+
+import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sort orders available for vehicle search results. Vehicles with equal keys keep their
+ * inventory order.
+ */
+public enum VehicleSort {
+    PRICE_ASC("price, lowest first", Vehicle::getPrice, false),
+    PRICE_DESC("price, highest first", Vehicle::getPrice, true),
+    YEAR_ASC("year, oldest first", Vehicle::getYear, false),
+    YEAR_DESC("year, newest first", Vehicle::getYear, true),
+    MILEAGE_ASC("mileage, lowest first", Vehicle::getOdometer, false),
+    MILEAGE_DESC("mileage, highest first", Vehicle::getOdometer, true);
+
+    private final String description;
+    private final ToDoubleFunction<Vehicle> key;
+    private final boolean descending;
+    private final Comparator<Vehicle> comparator;
+
+    VehicleSort(String description, ToDoubleFunction<Vehicle> key, boolean descending) {
+        this.description = description;
+        this.key = key;
+        this.descending = descending;
+        Comparator<Vehicle> ascending = Comparator.comparingDouble(key);
+        this.comparator = descending ? ascending.reversed() : ascending;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Comparator<Vehicle> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the field this order sorts on. Years and mileages are exact as doubles.
+     */
+    double key(Vehicle vehicle) {
+        return key.applyAsDouble(vehicle);
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Compares two keys in this order, like {@link #comparator()} compares their vehicles
+     */
+    int compareKeys(double a, double b) {
+        return descending ? Double.compare(b, a) : Double.compare(a, b);
+    }
+}
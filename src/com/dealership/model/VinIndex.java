@@ -0,0 +1,144 @@
+package com.dealership.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from VIN to inventory slot, using primitive
+ * arrays so lookups do not box the key
+ */
+final class VinIndex {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Constructor for the VinIndex class
+     *
+     * @param expectedSize Number of VINs the index should hold without resizing
+     */
+    VinIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the slot stored for a VIN
+     *
+     * @param vin VIN to look up
+     * @return The slot, or -1 if the VIN is not indexed
+     */
+    int get(int vin) {
+        int i = mix(vin) & mask;
+        while (values[i] != EMPTY) {
+            if (keys[i] == vin) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Stores or replaces the slot for a VIN
+     *
+     * @param vin  VIN to index
+     * @param slot Slot of the vehicle, must not be negative
+     */
+    void put(int vin, int slot) {
+        int i = mix(vin) & mask;
+        while (values[i] != EMPTY) {
+            if (keys[i] == vin) {
+                values[i] = slot;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = vin;
+        values[i] = slot;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes a VIN from the index
+     *
+     * @param vin VIN to remove
+     * @return The slot that was stored, or -1 if the VIN was not indexed
+     */
+    int remove(int vin) {
+        int i = mix(vin) & mask;
+        while (values[i] != EMPTY) {
+            if (keys[i] == vin) {
+                int slot = values[i];
+                shiftBack(i);
+                size--;
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Removes every entry while keeping the allocated capacity
+     */
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == EMPTY) {
+                break;
+            }
+            int home = mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int j = mix(oldKeys[i]) & mask;
+                while (values[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // VINs are often sequential, so spread them before masking
+    private static int mix(int vin) {
+        int h = vin * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,427 @@
+package com.dealership.web;
+
+import com.dealership.data.DealershipFileManager;
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+import com.dealership.model.VehicleQuery;
+import com.dealership.model.VehicleSort;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the inventory as JSON over HTTP, for the website and the kiosks on the lot.
+ * <p>
+ * Endpoints, all under {@code /vehicles}:
+ * <ul>
+ *     <li>{@code GET /vehicles} - every vehicle</li>
+ *     <li>{@code GET /vehicles/{vin}} - one vehicle</li>
+ *     <li>{@code GET /vehicles/price?min=&max=}</li>
+ *     <li>{@code GET /vehicles/make-model?make=&model=}</li>
+ *     <li>{@code GET /vehicles/year?min=&max=}</li>
+ *     <li>{@code GET /vehicles/color?color=}</li>
+ *     <li>{@code GET /vehicles/mileage?min=&max=}</li>
+ *     <li>{@code GET /vehicles/type?type=}</li>
+ *     <li>{@code GET /vehicles/search?minPrice=&maxPrice=&minYear=&maxYear=&minMileage=&maxMileage=&make=&model=&color=&type=&sort=&limit=}</li>
+ *     <li>{@code POST /vehicles} - adds the vehicle in the JSON body</li>
+ *     <li>{@code DELETE /vehicles/{vin}} - removes a vehicle</li>
+ * </ul>
+ * Each request runs on its own virtual thread when the JVM has them (Java 21 and up),
+ * otherwise on a pooled platform thread. The Dealership must be safe for concurrent use;
+ * load it with {@link DealershipFileManager#setConcurrentAccess(boolean)}.
+ */
+public class InventoryHttpServer {
+    private static final String CONTEXT = "/vehicles";
+    private static final int BACKLOG = 1024;
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+
+    private final Dealership dealership;
+    private final DealershipFileManager fileManager;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructor for the InventoryHttpServer class
+     *
+     * @param dealership  Inventory to serve
+     * @param fileManager Saves the inventory after each add or remove
+     */
+    public InventoryHttpServer(Dealership dealership, DealershipFileManager fileManager) {
+        this.dealership = dealership;
+        this.fileManager = fileManager;
+    }
+
+    /**
+     * Starts accepting requests
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(CONTEXT, this::handle);
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public synchronized int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish for up to a few seconds, and waits
+     * for queued saves
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        executor = null;
+        fileManager.flush();
+    }
+
+    /**
+     * Creates a virtual thread per request where the JVM supports it. Looked up reflectively
+     * so the code still builds and runs on Java 11.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // No virtual threads (or only as a preview): reuse platform threads between requests
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "inventory-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (BadRequestException e) {
+            if (exchange.getResponseCode() == -1) {
+                send(exchange, 400, Json.error(e.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+            // Once the headers are out the status cannot change; closing cuts the body short
+            if (exchange.getResponseCode() == -1) {
+                send(exchange, 500, Json.error("Internal error"));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.length() > CONTEXT.length() ? path.substring(CONTEXT.length() + 1) : "";
+        if (path.length() > CONTEXT.length() && path.charAt(CONTEXT.length()) != '/') {
+            send(exchange, 404, Json.error("Not found"));
+            return;
+        }
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if (rest.isEmpty()) {
+            if (method.equals("GET")) {
+                sendVehicles(exchange, dealership.getAllVehicles());
+            } else if (method.equals("POST")) {
+                addVehicle(exchange);
+            } else {
+                sendMethodNotAllowed(exchange, "GET, POST");
+            }
+            return;
+        }
+        if (Character.isDigit(rest.charAt(0))) {
+            int vin = parseInt(rest, "VIN");
+            if (method.equals("GET")) {
+                String vehicle = dealership.reading(() -> {
+                    Vehicle found = dealership.findByVin(vin);
+                    return found == null ? null : Json.vehicle(found);
+                });
+                if (vehicle == null) {
+                    send(exchange, 404, Json.error("No vehicle found with VIN " + vin));
+                } else {
+                    send(exchange, 200, vehicle);
+                }
+            } else if (method.equals("DELETE")) {
+                removeVehicle(exchange, vin);
+            } else {
+                sendMethodNotAllowed(exchange, "GET, DELETE");
+            }
+            return;
+        }
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange, "GET");
+            return;
+        }
+
+        List<Vehicle> vehicles;
+        switch (rest) {
+            case "price":
+                vehicles = dealership.getVehiclesByPrice(parseDouble(params, "min", 0),
+                        parseDouble(params, "max", Double.MAX_VALUE));
+                break;
+            case "make-model":
+                vehicles = dealership.getVehiclesByMakeModel(params.getOrDefault("make", ""),
+                        params.getOrDefault("model", ""));
+                break;
+            case "year":
+                vehicles = dealership.getVehiclesByYear(parseInt(params, "min", 0),
+                        parseInt(params, "max", Integer.MAX_VALUE));
+                break;
+            case "color":
+                vehicles = dealership.getVehiclesByColor(required(params, "color"));
+                break;
+            case "mileage":
+                vehicles = dealership.getVehiclesByMileage(parseInt(params, "min", 0),
+                        parseInt(params, "max", Integer.MAX_VALUE));
+                break;
+            case "type":
+                vehicles = dealership.getVehiclesByType(required(params, "type"));
+                break;
+            case "search":
+                vehicles = dealership.search(parseSearch(params));
+                break;
+            default:
+                send(exchange, 404, Json.error("Not found"));
+                return;
+        }
+        sendVehicles(exchange, vehicles);
+    }
+
+    private static VehicleQuery parseSearch(Map<String, String> params) {
+        VehicleQuery.Builder query = VehicleQuery.builder();
+        if (params.containsKey("minPrice") || params.containsKey("maxPrice")) {
+            query.priceRange(parseDouble(params, "minPrice", 0), parseDouble(params, "maxPrice", Double.MAX_VALUE));
+        }
+        if (params.containsKey("minYear") || params.containsKey("maxYear")) {
+            query.yearRange(parseInt(params, "minYear", 0), parseInt(params, "maxYear", Integer.MAX_VALUE));
+        }
+        if (params.containsKey("minMileage") || params.containsKey("maxMileage")) {
+            query.mileageRange(parseInt(params, "minMileage", 0),
+                    parseInt(params, "maxMileage", Integer.MAX_VALUE));
+        }
+        query.make(params.get("make"));
+        query.model(params.get("model"));
+        query.color(params.get("color"));
+        query.vehicleType(params.get("type"));
+        String sort = params.get("sort");
+        if (sort != null) {
+            try {
+                query.sortBy(VehicleSort.valueOf(sort.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown sort: " + sort);
+            }
+        }
+        if (params.containsKey("limit")) {
+            int limit = parseInt(params, "limit", 0);
+            if (limit < 1) {
+                throw new BadRequestException("limit must be at least 1");
+            }
+            query.limit(limit);
+        }
+        return query.build();
+    }
+
+    private void addVehicle(HttpExchange exchange) throws IOException {
+        Map<String, String> fields;
+        try {
+            fields = Json.parseObject(readBody(exchange));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid JSON: " + e.getMessage());
+        }
+        int vin = parseInt(required(fields, "vin"), "vin");
+        int year = parseInt(fields, "year", -1);
+        String make = required(fields, "make");
+        String model = required(fields, "model");
+        String vehicleType = required(fields, "vehicleType");
+        String color = required(fields, "color");
+        int odometer = parseInt(fields, "odometer", -1);
+        double price = parseDouble(fields, "price", -1);
+        Vehicle vehicle = new Vehicle(vin, year, make, model, vehicleType, color, odometer, price);
+        if (!vehicle.isValid()) {
+            throw new BadRequestException("Invalid input values. Vehicle not added.");
+        }
+
+        boolean added = dealership.atomically(() -> {
+            // Checked under the same lock as the add, so two requests cannot both add the VIN
+            if (dealership.containsVin(vin)) {
+                return false;
+            }
+            dealership.addVehicle(vehicle);
+            return true;
+        });
+        if (!added) {
+            send(exchange, 409, Json.error("Vehicle with VIN " + vin + " already exists"));
+            return;
+        }
+        if (save(exchange)) {
+            send(exchange, 201, dealership.reading(() -> Json.vehicle(vehicle)));
+        }
+    }
+
+    private void removeVehicle(HttpExchange exchange, int vin) throws IOException {
+        Vehicle removed = dealership.removeVehicle(vin);
+        if (removed == null) {
+            send(exchange, 404, Json.error("No vehicle found with VIN " + vin));
+            return;
+        }
+        if (save(exchange)) {
+            send(exchange, 200, Json.vehicle(removed));
+        }
+    }
+
+    /**
+     * Waits for the edit to reach the file before answering. Saves queued by concurrent
+     * requests are written together, so waiting costs one write for the whole batch.
+     */
+    private boolean save(HttpExchange exchange) throws IOException {
+        try {
+            fileManager.saveDealershipAsync(dealership).join();
+            return true;
+        } catch (CompletionException e) {
+            send(exchange, 500, Json.error("The change was made but could not be saved"));
+            return false;
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_SIZE) {
+                    throw new BadRequestException("Request body is too large");
+                }
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            try {
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid query string");
+            }
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new BadRequestException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private static int parseInt(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        return value == null ? defaultValue : parseInt(value, name);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a whole number");
+        }
+    }
+
+    private static double parseDouble(Map<String, String> params, String name, double defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a number");
+        }
+    }
+
+    private static void sendMethodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        send(exchange, 405, Json.error("Method not allowed"));
+    }
+
+    private void sendVehicles(HttpExchange exchange, List<Vehicle> vehicles) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // Length 0 streams the body in chunks, since its size is not known up front
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            Json.writeVehicles(out, vehicles, dealership);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * A request that cannot be answered because of its own parameters or body
+     */
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.dealership.web;
+
+import com.dealership.model.Dealership;
+import com.dealership.model.Vehicle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the inventory API: writes vehicles and reads the flat objects
+ * that clients send to add one.
+ */
+final class Json {
+    private static final int CHUNK_SIZE = 8192;
+
+    private Json() {
+    }
+
+    static void appendVehicle(StringBuilder out, Vehicle vehicle) {
+        out.append("{\"vin\":").append(vehicle.getVin())
+                .append(",\"year\":").append(vehicle.getYear())
+                .append(",\"make\":");
+        appendString(out, vehicle.getMake());
+        out.append(",\"model\":");
+        appendString(out, vehicle.getModel());
+        out.append(",\"vehicleType\":");
+        appendString(out, vehicle.getVehicleType());
+        out.append(",\"color\":");
+        appendString(out, vehicle.getColor());
+        out.append(",\"odometer\":").append(vehicle.getOdometer())
+                .append(",\"price\":").append(vehicle.getPrice())
+                .append('}');
+    }
+
+    /**
+     * Writes a list of vehicles, handing the text to the writer in chunks of about 8 KB
+     * so a large result is never held as one string. Each chunk is formatted inside
+     * {@link Dealership#reading}, so no vehicle is written with some fields from before an
+     * edit and some from after it; the writer is only called once the chunk is done.
+     */
+    static void writeVehicles(Writer out, List<Vehicle> vehicles, Dealership dealership) throws IOException {
+        StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 256);
+        chunk.append("{\"count\":").append(vehicles.size()).append(",\"vehicles\":[");
+        int next = 0;
+        while (next < vehicles.size()) {
+            int from = next;
+            next = dealership.reading(() -> appendVehicles(chunk, vehicles, from));
+            if (next < vehicles.size()) {
+                out.append(chunk);
+                chunk.setLength(0);
+            }
+        }
+        out.append(chunk.append("]}"));
+    }
+
+    // Appends vehicles from an index until the chunk is full, returning the index to go on from
+    private static int appendVehicles(StringBuilder chunk, List<Vehicle> vehicles, int from) {
+        int i = from;
+        while (i < vehicles.size() && chunk.length() < CHUNK_SIZE) {
+            if (i > 0) {
+                chunk.append(',');
+            }
+            appendVehicle(chunk, vehicles.get(i++));
+        }
+        return i;
+    }
+
+    static String vehicle(Vehicle vehicle) {
+        StringBuilder out = new StringBuilder(128);
+        appendVehicle(out, vehicle);
+        return out.toString();
+    }
+
+    static String error(String message) {
+        StringBuilder out = new StringBuilder(message.length() + 16);
+        out.append("{\"error\":");
+        appendString(out, message);
+        return out.append('}').toString();
+    }
+
+    static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Parses an object whose values are strings or numbers, such as
+     * {@code {"vin": 10113, "make": "Toyota"}}
+     *
+     * @param text JSON text
+     * @return Each member's value as text, in document order
+     * @throws IllegalArgumentException If the text is not such an object
+     */
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> members = new LinkedHashMap<>();
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String name = parser.string();
+                parser.expect(':');
+                members.put(name, parser.value());
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw new IllegalArgumentException("Unexpected text after the object");
+        }
+        return members;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + pos);
+            }
+        }
+
+        String value() {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return string();
+            }
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Expected a string or number at position " + pos);
+            }
+            return text.substring(start, pos);
+        }
+
+        String string() {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != '"') {
+                throw new IllegalArgumentException("Expected a string at position " + pos);
+            }
+            StringBuilder out = new StringBuilder();
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Truncated escape at position " + pos);
+                        }
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        out.append(escaped);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+    }
+}